@@ -0,0 +1,77 @@
+import bench.SourceTreeGenerator;
+import bench.TranslationPhases;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class TransformerPhases implements TranslationPhases {
+    private Map<String, String> params;
+    private JavaToTStransformer transformer;
+    private TypeDeclaration root;
+
+    @Override
+    public void setUp(Path src, Path out) throws IOException {
+        params = new HashMap<>();
+        params.put("-p", src.toString());
+        params.put("-i", SourceTreeGenerator.ROOT_CLASS);
+        params.put("-sr", src.toString() + "/");
+        params.put("-tr", out.toString());
+        params.put("-fr", out.toString());
+        transformer = new JavaToTStransformer(params);
+        transformer.buildLauncher();
+        root = transformer.getDeclarations().get(SourceTreeGenerator.ROOT_CLASS);
+    }
+
+    @Override
+    public Object buildModel() throws IOException {
+        JavaToTStransformer fresh = new JavaToTStransformer(params);
+        fresh.buildLauncher();
+        return fresh.getDeclarations();
+    }
+
+    @Override
+    public Object parseType() {
+        transformer.clear();
+        transformer.parseType(root);
+        return transformer;
+    }
+
+    @Override
+    public void resolveTypes(Consumer<Object> sink) {
+        for (TypeDeclaration declaration : transformer.getDeclarations().values()) {
+            for (TypeDeclaration.FieldDeclaration field : declaration.fields) {
+                sink.accept(transformer.getType(field.type));
+                sink.accept(transformer.getActualTypes(declaration, field.type));
+            }
+        }
+    }
+
+    @Override
+    public void createImports(Consumer<Object> sink) {
+        for (TypeDeclaration declaration : transformer.getDeclarations().values()) {
+            Stream<TypeDeclaration> imports = declaration.fields.stream()
+                    .flatMap(f -> transformer.getActualTypes(declaration, f.type).stream());
+            sink.accept(transformer.createImports(imports));
+        }
+    }
+
+    @Override
+    public Object translate(boolean lazy) throws IOException {
+        Map<String, String> translationParams = new HashMap<>(params);
+        if (lazy) {
+            translationParams.put("--lazy", null);
+        }
+        JavaToTStransformer fresh = new JavaToTStransformer(translationParams);
+        fresh.buildLauncher();
+        fresh.parse();
+        return fresh;
+    }
+
+    @Override
+    public void run() throws IOException {
+        JavaToTStransformer.run(transformer, params);
+    }
+}
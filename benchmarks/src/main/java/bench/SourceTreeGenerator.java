@@ -0,0 +1,125 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates a synthetic java source tree to translate: classes {@code bench.p<n>.C<i>} and enums {@code bench.enums.E<i>}.
+ * Every class references the next one, so that all of them are reachable from {@code bench.p0.C0}.
+ */
+public class SourceTreeGenerator {
+    public static final String ROOT_CLASS = "bench.p0.C0";
+    private static final int CLASSES_PER_PACKAGE = 50;
+    private static final String[] SIMPLE_TYPES = {"int", "String", "boolean", "Double", "long"};
+
+    private final int classCount;
+    private final int fieldCount;
+    private final int genericDepth;
+    private final int inheritanceDepth;
+    private final int enumCount;
+
+    /**
+     * @param genericDepth     number of collections wrapped around generic field types, e.g. 2 for {@code Map<String, List<C1>>}
+     * @param inheritanceDepth length of the superclass chains, 1 for no inheritance
+     */
+    public SourceTreeGenerator(int classCount, int fieldCount, int genericDepth, int inheritanceDepth) {
+        if (classCount < 1 || fieldCount < 0 || genericDepth < 0 || inheritanceDepth < 1) {
+            throw new IllegalArgumentException("Invalid source tree shape");
+        }
+        this.classCount = classCount;
+        this.fieldCount = fieldCount;
+        this.genericDepth = genericDepth;
+        this.inheritanceDepth = inheritanceDepth;
+        this.enumCount = Math.max(1, classCount / 10);
+    }
+
+    public void generate(Path root) throws IOException {
+        for (int i = 0; i < classCount; i++) {
+            write(root, packageOf(i), "C" + i, classSource(i));
+        }
+        for (int i = 0; i < enumCount; i++) {
+            write(root, "bench.enums", "E" + i, "package bench.enums;\n\npublic enum E" + i + " {\n    A, B, C\n}\n");
+        }
+    }
+
+    private String classSource(int i) {
+        Set<String> imports = new TreeSet<>();
+        StringBuilder body = new StringBuilder();
+        String extendsClause = "";
+        if (i % inheritanceDepth != 0) {
+            extendsClause = " extends " + reference(i, i - 1, imports);
+        }
+        for (int j = 0; j < fieldCount; j++) {
+            String type;
+            switch (j % 4) {
+                case 0:
+                    type = SIMPLE_TYPES[(i + j) % SIMPLE_TYPES.length];
+                    break;
+                case 1:
+                    type = wrap(reference(i, (i + 1) % classCount, imports), imports);
+                    break;
+                case 2:
+                    imports.add("bench.enums.E" + ((i + j) % enumCount));
+                    type = "E" + ((i + j) % enumCount);
+                    break;
+                default:
+                    type = wrap(reference(i, (i * 7 + j) % classCount, imports), imports);
+                    break;
+            }
+            body.append("    public ").append(type).append(" f").append(j).append(";\n");
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(packageOf(i)).append(";\n\n");
+        for (String imp : imports) {
+            sb.append("import ").append(imp).append(";\n");
+        }
+        sb.append("\npublic class C").append(i).append(extendsClause).append(" {\n").append(body).append("}\n");
+        return sb.toString();
+    }
+
+    private String wrap(String type, Set<String> imports) {
+        String res = type;
+        for (int depth = 0; depth < genericDepth; depth++) {
+            if (depth % 2 == 0) {
+                imports.add("java.util.List");
+                res = "List<" + res + ">";
+            } else {
+                imports.add("java.util.Map");
+                res = "Map<String, " + res + ">";
+            }
+        }
+        return res;
+    }
+
+    private static String reference(int from, int to, Set<String> imports) {
+        if (!packageOf(from).equals(packageOf(to))) {
+            imports.add(packageOf(to) + ".C" + to);
+        }
+        return "C" + to;
+    }
+
+    private static String packageOf(int i) {
+        return "bench.p" + (i / CLASSES_PER_PACKAGE);
+    }
+
+    private static void write(Path root, String packageName, String name, String source) throws IOException {
+        Path dir = root.resolve(packageName.replace('.', '/'));
+        Files.createDirectories(dir);
+        Files.write(dir.resolve(name + ".java"), source.getBytes());
+    }
+
+    /**
+     * Writes a tree to profile the translation outside of JMH: {@code <dir> <classes> <fields> <generic depth> <inheritance depth>}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 5) {
+            throw new IllegalArgumentException("Usage: SourceTreeGenerator <dir> <classes> <fields> <generic depth> <inheritance depth>");
+        }
+        new SourceTreeGenerator(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]))
+                .generate(Paths.get(args[0]));
+    }
+}
@@ -0,0 +1,118 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Translation phases over a generated source tree, see {@link SourceTreeGenerator} for its shape.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TransformerBenchmark {
+    @Param({"200", "1000"})
+    public int classCount;
+    @Param({"8"})
+    public int fieldCount;
+    @Param({"2"})
+    public int genericDepth;
+    @Param({"3"})
+    public int inheritanceDepth;
+
+    private Path dir;
+    private TranslationPhases phases;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("j2ts-bench");
+        new SourceTreeGenerator(classCount, fieldCount, genericDepth, inheritanceDepth).generate(dir.resolve("src"));
+        phases = (TranslationPhases) Class.forName("TransformerPhases").getConstructor().newInstance();
+        phases.setUp(dir.resolve("src"), dir.resolve("out"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        delete(dir);
+    }
+
+    /**
+     * Output directory emptied before every invocation, so that each run writes all files.
+     */
+    @State(Scope.Benchmark)
+    public static class Output {
+        @Setup(Level.Invocation)
+        public void clean(TransformerBenchmark benchmark) throws IOException {
+            delete(benchmark.dir.resolve("out"));
+        }
+    }
+
+    @Benchmark
+    public Object buildLauncher() throws IOException {
+        return phases.buildModel();
+    }
+
+    @Benchmark
+    public Object parseType() {
+        return phases.parseType();
+    }
+
+    @Benchmark
+    public void resolveTypes(Blackhole bh) {
+        phases.resolveTypes(bh::consume);
+    }
+
+    @Benchmark
+    public void createImports(Blackhole bh) {
+        phases.createImports(bh::consume);
+    }
+
+    /**
+     * Every class is reachable from the root one, so --lazy parses them all too and should not take longer.
+     */
+    @Benchmark
+    public Object translateEager() throws IOException {
+        return phases.translate(false);
+    }
+
+    @Benchmark
+    public Object translateLazy() throws IOException {
+        return phases.translate(true);
+    }
+
+    @Benchmark
+    public void run(Output output) throws IOException {
+        phases.run();
+    }
+
+    private static void delete(Path path) throws IOException {
+        if (Files.notExists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Phases of the translation measured by {@link TransformerBenchmark}. The transformer lives in the unnamed package,
+ * which JMH benchmarks can't use directly, so it is driven through this interface.
+ */
+public interface TranslationPhases {
+    /**
+     * Builds the model of the sources under src, translating {@link SourceTreeGenerator#ROOT_CLASS} to out.
+     */
+    void setUp(Path src, Path out) throws IOException;
+
+    /**
+     * @return the model of a fresh transformer
+     */
+    Object buildModel() throws IOException;
+
+    /**
+     * @return types reachable from the root class
+     */
+    Object parseType();
+
+    /**
+     * Maps every field type of the model to TypeScript and resolves its actual types.
+     */
+    void resolveTypes(Consumer<Object> sink);
+
+    /**
+     * Creates the import lines of every type of the model.
+     */
+    void createImports(Consumer<Object> sink);
+
+    /**
+     * @return translation of the root class by a fresh transformer, parsing all the sources first or, when lazy, the
+     * ones reached from the root class
+     */
+    Object translate(boolean lazy) throws IOException;
+
+    /**
+     * Translates the root class and writes all of its files.
+     */
+    void run() throws IOException;
+}
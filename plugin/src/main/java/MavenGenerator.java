@@ -0,0 +1,24 @@
+import j2ts.maven.Generator;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * Unnamed package side of {@link Generator}: {@link j2ts.maven.GenerateMojo} can only reach the transformer by loading
+ * this class by name.
+ */
+public class MavenGenerator implements Generator {
+    @Override
+    public boolean generate(Map<String, String> params, Path stateFile) throws IOException {
+        String fingerprint = InputFingerprint.compute(params);
+        if (InputFingerprint.isUpToDate(stateFile, fingerprint, Paths.get(params.get("-m")))) {
+            return false;
+        }
+        JavaToTStransformer transformer = new JavaToTStransformer(params);
+        transformer.buildLauncher();
+        JavaToTStransformer.run(transformer, params);
+        InputFingerprint.save(stateFile, fingerprint);
+        return true;
+    }
+}
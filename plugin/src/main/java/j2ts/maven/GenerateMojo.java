@@ -0,0 +1,151 @@
+package j2ts.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Translates classes of the project to TypeScript in the build JVM. Nothing is done when neither the inputs nor the
+ * generated files changed since the last build; otherwise only the changed sources are parsed again and only the
+ * files whose content changed are rewritten.
+ */
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.PROCESS_CLASSES, threadSafe = true)
+public class GenerateMojo extends AbstractMojo {
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    /**
+     * Classes to translate, with the syntax of the lines of a --batch file: qualified names, globs or marker annotations.
+     */
+    @Parameter
+    private List<String> classes;
+
+    /**
+     * File listing the classes to translate, as --batch, instead of {@link #classes}.
+     */
+    @Parameter(property = "j2ts.batchFile")
+    private File batchFile;
+
+    /**
+     * Read types from the compiled classes of the project instead of its sources.
+     */
+    @Parameter(property = "j2ts.fromClasses", defaultValue = "false")
+    private boolean fromClasses;
+
+    /**
+     * -sr, the first source root of the project or its classes directory by default.
+     */
+    @Parameter
+    private File sourceRoot;
+
+    /**
+     * -tr
+     */
+    @Parameter(property = "j2ts.targetRoot", required = true)
+    private File targetRoot;
+
+    /**
+     * -fr
+     */
+    @Parameter(property = "j2ts.frontendRoot")
+    private File frontendRoot;
+
+    /**
+     * -tm
+     */
+    @Parameter
+    private File typeMappings;
+
+    /**
+     * -j
+     */
+    @Parameter(property = "j2ts.threads", defaultValue = "1")
+    private int threads;
+
+    /**
+     * Where the model cache, the manifest of the generated files and the fingerprint of the last inputs are kept.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/j2ts")
+    private File workDirectory;
+
+    @Parameter(property = "j2ts.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (skip) {
+            getLog().info("Skipping TypeScript generation");
+            return;
+        }
+        boolean hasClasses = classes != null && !classes.isEmpty();
+        if (hasClasses == (batchFile != null)) {
+            throw new MojoExecutionException("Exactly one of classes and batchFile has to be configured");
+        }
+        Path work = workDirectory.toPath();
+        Map<String, String> params = new HashMap<>();
+        String defaultSourceRoot;
+        if (fromClasses) {
+            String classesDirectory = project.getBuild().getOutputDirectory();
+            params.put("-cp", classesDirectory);
+            defaultSourceRoot = classesDirectory;
+        } else {
+            List<String> roots = new ArrayList<>();
+            for (String root : project.getCompileSourceRoots()) {
+                if (new File(root).isDirectory()) {
+                    roots.add(root);
+                }
+            }
+            if (roots.isEmpty()) {
+                getLog().info("No sources to translate to TypeScript");
+                return;
+            }
+            params.put("-p", String.join(":", roots));
+            defaultSourceRoot = roots.get(0);
+        }
+        params.put("-sr", (sourceRoot == null ? defaultSourceRoot : sourceRoot.getPath()) + "/");
+        params.put("-tr", targetRoot.getPath());
+        if (frontendRoot != null) {
+            params.put("-fr", frontendRoot.getPath());
+        }
+        if (typeMappings != null) {
+            params.put("-tm", typeMappings.getPath());
+        }
+        params.put("-j", String.valueOf(threads));
+        params.put("-c", work.resolve("model").toString());
+        params.put("-m", work.resolve("manifest").toString());
+
+        try {
+            if (hasClasses) {
+                Path list = work.resolve("classes.txt");
+                Files.createDirectories(work);
+                Files.write(list, classes, StandardCharsets.UTF_8);
+                params.put("--batch", list.toString());
+            } else {
+                params.put("--batch", batchFile.getPath());
+            }
+            Generator generator = (Generator) Class.forName("MavenGenerator").getConstructor().newInstance();
+            long start = System.currentTimeMillis();
+            if (generator.generate(params, work.resolve("inputs"))) {
+                getLog().info(String.format("Generated TypeScript in %d ms", System.currentTimeMillis() - start));
+            } else {
+                getLog().info("TypeScript is up to date");
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new MojoExecutionException("TypeScript generation failed: " + e.getMessage(), e);
+        } catch (ReflectiveOperationException e) {
+            throw new MojoExecutionException("Cannot load the transformer", e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package j2ts.maven;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Translation run by {@link GenerateMojo}.
+ */
+public interface Generator {
+    /**
+     * Translates with the given command line parameters, unless the inputs have the fingerprint kept in the state file
+     * and the files written last time are untouched.
+     *
+     * @return false if the translation was skipped
+     */
+    boolean generate(Map<String, String> params, Path stateFile) throws IOException;
+}
@@ -0,0 +1,6 @@
+package shop;
+
+public class Order {
+    public int id;
+    public String customer;
+}
@@ -0,0 +1,4 @@
+def log = new File(basedir, 'build.log').text
+assert log.contains('Generated TypeScript in')
+assert log.contains('TypeScript is up to date')
+assert new File(basedir, 'target/ts/shop/order.ts').isFile()
@@ -0,0 +1,139 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import org.apache.log4j.Logger;
+
+/**
+ * Roots of a batch translation. Every spec is one of:
+ * <ul>
+ * <li>a qualified class name: {@code com.acme.api.OrderDto}</li>
+ * <li>a glob over qualified names, {@code *} not crossing packages nor nested types and {@code **} crossing
+ * anything: {@code com.acme.api.*}, {@code com.acme.**Dto}</li>
+ * <li>a marker annotation, qualified or simple: {@code @com.acme.Exported}, {@code @Exported}</li>
+ * </ul>
+ */
+public class BatchSelector {
+    private static final Logger logger = Logger.getLogger(BatchSelector.class);
+
+    private final List<String> specs;
+
+    public BatchSelector(List<String> specs) {
+        this.specs = specs;
+    }
+
+    /**
+     * Reads the specs of a list file, one per line. Blank lines and lines starting with # are skipped.
+     */
+    public static BatchSelector read(Path listFile) throws IOException {
+        List<String> specs = new ArrayList<>();
+        for (String line : Files.readAllLines(listFile)) {
+            String spec = line.trim();
+            if (!spec.isEmpty() && !spec.startsWith("#")) {
+                specs.add(spec);
+            }
+        }
+        return new BatchSelector(specs);
+    }
+
+    /**
+     * @return classes and enums matching the specs, in the order of the specs and then of the table
+     */
+    public List<TypeDeclaration> select(DeclarationTable declarations) {
+        Set<TypeDeclaration> res = new LinkedHashSet<>();
+        for (String spec : specs) {
+            List<TypeDeclaration> matches = new ArrayList<>();
+            if (spec.startsWith("@")) {
+                String marker = spec.substring(1);
+                for (TypeDeclaration type : declarations.values()) {
+                    if (isTranslatable(type) && isAnnotated(type, marker)) {
+                        matches.add(type);
+                    }
+                }
+            } else if (spec.contains("*")) {
+                Pattern glob = toPattern(spec);
+                for (TypeDeclaration type : declarations.values()) {
+                    if (isTranslatable(type) && glob.matcher(type.qualifiedName).matches()) {
+                        matches.add(type);
+                    }
+                }
+            } else {
+                TypeDeclaration type = declarations.get(spec);
+                if (type == null || !isTranslatable(type)) {
+                    throw new IllegalArgumentException(String.format("Nothing found for: %s", spec));
+                }
+                matches.add(type);
+            }
+            if (matches.isEmpty()) {
+                logger.warn(String.format("Nothing found for: %s", spec));
+            }
+            res.addAll(matches);
+        }
+        return new ArrayList<>(res);
+    }
+
+    /**
+     * @return source files that may declare types matching the specs, to be parsed before selecting
+     */
+    public Set<Path> locate(SourceIndex index) {
+        Set<Path> res = new TreeSet<>();
+        for (String spec : specs) {
+            if (spec.startsWith("@")) {
+                res.addAll(index.findAnnotated(spec.substring(1)));
+            } else if (spec.contains("*")) {
+                Pattern glob = toPattern(spec);
+                for (String name : index.names()) {
+                    if (glob.matcher(name).matches()) {
+                        res.add(index.locate(name));
+                    }
+                }
+            } else {
+                Path file = index.locate(spec);
+                if (file != null) {
+                    res.add(file);
+                }
+            }
+        }
+        return res;
+    }
+
+    private static boolean isTranslatable(TypeDeclaration type) {
+        return type.kind != TypeDeclaration.Kind.OTHER;
+    }
+
+    // annotations of partially built models may only be known by the name Spoon guessed for them
+    private static boolean isAnnotated(TypeDeclaration type, String marker) {
+        boolean simple = !marker.contains(".");
+        for (String annotation : type.annotations) {
+            if (simple ? getSimpleName(annotation).equals(marker) : DeclarationTable.getCandidateNames(type, annotation).contains(marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getSimpleName(String qualifiedName) {
+        return qualifiedName.substring(Math.max(qualifiedName.lastIndexOf('.'), qualifiedName.lastIndexOf('$')) + 1);
+    }
+
+    static Pattern toPattern(String glob) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' && i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                sb.append(".*");
+                i++;
+            } else if (c == '*') {
+                sb.append("[^.$]*");
+            } else {
+                sb.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(sb.toString());
+    }
+}
@@ -0,0 +1,604 @@
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Reads {@link TypeDeclaration}s straight from compiled classes, without parsing any source: field types come from
+ * field descriptors and from the generic Signature attributes.
+ * <p>
+ * Compiled enums don't keep the arguments of their constants, so values are recovered from the static initializer
+ * when the first constructor argument is a String, int or char constant. Other enum values fall back to their names.
+ */
+public class ClassFileReader {
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_SYNTHETIC = 0x1000;
+    private static final int ACC_ANNOTATION = 0x2000;
+    private static final int ACC_ENUM = 0x4000;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    // length of every instruction by opcode, tableswitch, lookupswitch and wide excepted
+    private static final int[] INSTRUCTION_LENGTHS = new int[256];
+
+    static {
+        Arrays.fill(INSTRUCTION_LENGTHS, 1);
+        for (int opcode : new int[]{0x10, 0x12, 0x15, 0x16, 0x17, 0x18, 0x19, 0x36, 0x37, 0x38, 0x39, 0x3A, 0xA9, 0xBC}) {
+            INSTRUCTION_LENGTHS[opcode] = 2;
+        }
+        for (int opcode : new int[]{0x11, 0x13, 0x14, 0x84, 0xB2, 0xB3, 0xB4, 0xB5, 0xB6, 0xB7, 0xB8, 0xBB, 0xBD, 0xC0, 0xC1, 0xC6, 0xC7}) {
+            INSTRUCTION_LENGTHS[opcode] = 3;
+        }
+        for (int opcode = 0x99; opcode <= 0xA8; opcode++) {
+            INSTRUCTION_LENGTHS[opcode] = 3;
+        }
+        INSTRUCTION_LENGTHS[0xC5] = 4;
+        INSTRUCTION_LENGTHS[0xB9] = 5;
+        INSTRUCTION_LENGTHS[0xBA] = 5;
+        INSTRUCTION_LENGTHS[0xC8] = 5;
+        INSTRUCTION_LENGTHS[0xC9] = 5;
+    }
+
+    private ClassFileReader() {
+    }
+
+    /**
+     * @param roots class directories and JARs separated by ":"
+     * @return declarations of all classes and enums found, nested ones included
+     */
+    public static List<TypeDeclaration> load(String roots) throws IOException {
+        List<TypeDeclaration> res = new ArrayList<>();
+        for (String root : roots.split(":")) {
+            Path path = Paths.get(root).toFile().getCanonicalFile().toPath();
+            if (Files.isDirectory(path)) {
+                List<Path> classes;
+                try (Stream<Path> files = Files.walk(path)) {
+                    classes = files.filter(f -> f.toString().endsWith(".class") && Files.isRegularFile(f)).sorted().collect(Collectors.toList());
+                }
+                for (Path file : classes) {
+                    try (InputStream in = Files.newInputStream(file)) {
+                        add(read(in, path.toString()), res);
+                    }
+                }
+            } else {
+                try (ZipFile jar = new ZipFile(path.toFile())) {
+                    List<ZipEntry> entries = new ArrayList<>();
+                    for (Enumeration<? extends ZipEntry> e = jar.entries(); e.hasMoreElements(); ) {
+                        ZipEntry entry = e.nextElement();
+                        if (entry.getName().endsWith(".class") && !entry.getName().startsWith("META-INF/")) {
+                            entries.add(entry);
+                        }
+                    }
+                    entries.sort((a, b) -> a.getName().compareTo(b.getName()));
+                    for (ZipEntry entry : entries) {
+                        try (InputStream in = jar.getInputStream(entry)) {
+                            add(read(in, path.toString()), res);
+                        }
+                    }
+                }
+            }
+        }
+        return res;
+    }
+
+    private static void add(TypeDeclaration declaration, List<TypeDeclaration> res) {
+        if (declaration != null) {
+            res.add(declaration);
+        }
+    }
+
+    /**
+     * @param root directory or JAR the class comes from, the source file path of the declaration is made up from it
+     * @return declaration of the class or null for synthetic, anonymous, local and module classes
+     */
+    static TypeDeclaration read(InputStream input, String root) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+        ConstantPool pool = new ConstantPool(in);
+
+        int access = in.readUnsignedShort();
+        String binaryName = pool.className(in.readUnsignedShort());
+        int superIndex = in.readUnsignedShort();
+        String superName = superIndex == 0 ? null : pool.className(superIndex);
+        for (int i = in.readUnsignedShort(); i > 0; i--) {
+            in.readUnsignedShort();
+        }
+
+        List<FieldInfo> fields = new ArrayList<>();
+        for (int i = in.readUnsignedShort(); i > 0; i--) {
+            FieldInfo field = new FieldInfo();
+            field.access = in.readUnsignedShort();
+            field.name = pool.utf8(in.readUnsignedShort());
+            field.descriptor = pool.utf8(in.readUnsignedShort());
+            for (int j = in.readUnsignedShort(); j > 0; j--) {
+                String name = pool.utf8(in.readUnsignedShort());
+                byte[] attribute = readAttribute(in);
+                if ("Signature".equals(name)) {
+                    field.signature = pool.utf8(u2(attribute, 0));
+                }
+            }
+            fields.add(field);
+        }
+
+        byte[] clinit = null;
+        for (int i = in.readUnsignedShort(); i > 0; i--) {
+            in.readUnsignedShort();
+            String name = pool.utf8(in.readUnsignedShort());
+            in.readUnsignedShort();
+            for (int j = in.readUnsignedShort(); j > 0; j--) {
+                String attributeName = pool.utf8(in.readUnsignedShort());
+                byte[] attribute = readAttribute(in);
+                if ("<clinit>".equals(name) && "Code".equals(attributeName)) {
+                    clinit = attribute;
+                }
+            }
+        }
+
+        String signature = null;
+        String sourceFile = null;
+        String simpleName = null;
+        boolean anonymous = false;
+        List<String> annotations = new ArrayList<>();
+        for (int i = in.readUnsignedShort(); i > 0; i--) {
+            String name = pool.utf8(in.readUnsignedShort());
+            byte[] attribute = readAttribute(in);
+            if ("Signature".equals(name)) {
+                signature = pool.utf8(u2(attribute, 0));
+            } else if ("SourceFile".equals(name)) {
+                sourceFile = pool.utf8(u2(attribute, 0));
+            } else if ("InnerClasses".equals(name)) {
+                for (int j = 0; j < u2(attribute, 0); j++) {
+                    int offset = 2 + j * 8;
+                    if (binaryName.equals(pool.className(u2(attribute, offset)))) {
+                        int nameIndex = u2(attribute, offset + 4);
+                        if (nameIndex == 0) {
+                            anonymous = true;
+                        } else {
+                            simpleName = pool.utf8(nameIndex);
+                            anonymous = u2(attribute, offset + 2) == 0;
+                        }
+                    }
+                }
+            } else if ("EnclosingMethod".equals(name)) {
+                anonymous = true;
+            } else if ("RuntimeVisibleAnnotations".equals(name) || "RuntimeInvisibleAnnotations".equals(name)) {
+                int offset = 2;
+                for (int j = 0; j < u2(attribute, 0); j++) {
+                    annotations.add(new SignatureParser(pool.utf8(u2(attribute, offset))).readType().qualifiedName);
+                    offset = skipAnnotation(attribute, offset);
+                }
+            }
+        }
+
+        if ((access & ACC_SYNTHETIC) != 0 || anonymous || binaryName.endsWith("module-info") || binaryName.endsWith("package-info")) {
+            return null;
+        }
+
+        String qualifiedName = binaryName.replace('/', '.');
+        if (simpleName == null) {
+            simpleName = qualifiedName.substring(Math.max(qualifiedName.lastIndexOf('.'), qualifiedName.lastIndexOf('$')) + 1);
+        }
+        String packageName = DeclarationExtractor.getPackageName(qualifiedName);
+        String topLevel = qualifiedName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1).split("\\$")[0];
+        String file = root + "/" + (packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/")
+                + (sourceFile != null ? sourceFile : topLevel + ".java");
+
+        TypeDeclaration.Kind kind = (access & ACC_ENUM) != 0 ? TypeDeclaration.Kind.ENUM
+                : (access & (ACC_INTERFACE | ACC_ANNOTATION)) != 0 ? TypeDeclaration.Kind.OTHER : TypeDeclaration.Kind.CLASS;
+        TypeDeclaration res = new TypeDeclaration(kind, qualifiedName, simpleName, packageName, file, Collections.emptyList());
+        res.annotations.addAll(annotations);
+
+        if (kind == TypeDeclaration.Kind.ENUM) {
+            Map<String, String> values = clinit == null ? Collections.emptyMap() : readEnumValues(clinit, binaryName, pool);
+            for (FieldInfo field : fields) {
+                if ((field.access & ACC_ENUM) != 0) {
+                    res.enumValues.add(new TypeDeclaration.EnumValueDeclaration(field.name, values.get(field.name)));
+                }
+            }
+        } else if (kind == TypeDeclaration.Kind.CLASS) {
+            if (signature != null) {
+                SignatureParser parser = new SignatureParser(signature);
+                parser.skipTypeParameters();
+                res.superClass = parser.readType();
+            } else if (superName != null) {
+                res.superClass = new SignatureParser("L" + superName + ";").readType();
+            }
+            if (res.superClass != null && "java.lang.Object".equals(res.superClass.qualifiedName)) {
+                res.superClass = null;
+            }
+            for (FieldInfo field : fields) {
+                if ((field.access & (ACC_PRIVATE | ACC_SYNTHETIC)) == 0) {
+                    TypeDeclaration.TypeRef type = new SignatureParser(field.signature != null ? field.signature : field.descriptor).readType();
+                    res.fields.add(new TypeDeclaration.FieldDeclaration(field.name, type));
+                }
+            }
+        }
+        return res;
+    }
+
+    private static byte[] readAttribute(DataInputStream in) throws IOException {
+        byte[] res = new byte[in.readInt()];
+        in.readFully(res);
+        return res;
+    }
+
+    private static int u2(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    // annotation: type, number of pairs, then pairs of name and element value
+    private static int skipAnnotation(byte[] bytes, int offset) {
+        int pairs = u2(bytes, offset + 2);
+        offset += 4;
+        for (int i = 0; i < pairs; i++) {
+            offset = skipElementValue(bytes, offset + 2);
+        }
+        return offset;
+    }
+
+    private static int skipElementValue(byte[] bytes, int offset) {
+        switch ((char) bytes[offset]) {
+            case 'e':
+                return offset + 5;
+            case '@':
+                return skipAnnotation(bytes, offset + 1);
+            case '[': {
+                int values = u2(bytes, offset + 1);
+                offset += 3;
+                for (int i = 0; i < values; i++) {
+                    offset = skipElementValue(bytes, offset);
+                }
+                return offset;
+            }
+            default:
+                return offset + 3;
+        }
+    }
+
+    private static int s2(byte[] bytes, int offset) {
+        return (short) u2(bytes, offset);
+    }
+
+    /**
+     * Follows the static initializer of an enum: every constant is created with {@code new E; dup; ldc NAME; <ordinal>;
+     * <arguments>; invokespecial E.<init>; putstatic E.NAME}.
+     *
+     * @return literal of the first constructor argument by constant name, for the constants where it is a constant
+     */
+    private static Map<String, String> readEnumValues(byte[] code, String binaryName, ConstantPool pool) {
+        Map<String, String> res = new HashMap<>();
+        int codeLength = (int) (((code[4] & 0xFFL) << 24) | ((code[5] & 0xFF) << 16) | ((code[6] & 0xFF) << 8) | (code[7] & 0xFF));
+        int start = 8;
+        int end = start + codeLength;
+        // position within the creation of a constant: 0 outside, 1 after new, 2 after dup, 3 after the name, 4 after the ordinal
+        int state = 0;
+        Object firstArgument = null;
+        boolean firstArgumentSeen = false;
+        String value = null;
+        for (int pc = start; pc < end; ) {
+            int opcode = code[pc] & 0xFF;
+            Object constant = getPushedConstant(code, pc, pool);
+            if (opcode == 0xBB && binaryName.equals(pool.className(u2(code, pc + 1)))) {
+                state = 1;
+                firstArgument = null;
+                firstArgumentSeen = false;
+            } else if (state == 1) {
+                state = opcode == 0x59 ? 2 : 0;
+            } else if (state == 2) {
+                state = constant instanceof String ? 3 : 0;
+            } else if (state == 3) {
+                state = constant instanceof Integer ? 4 : 0;
+            } else if (state == 4 && opcode == 0xB7) {
+                String[] ref = pool.memberRef(u2(code, pc + 1));
+                if (binaryName.equals(ref[0]) && "<init>".equals(ref[1])) {
+                    List<Character> parameters = getParameterKinds(ref[2]);
+                    value = parameters.size() > 2 ? toLiteral(firstArgument, parameters.get(2)) : null;
+                }
+                state = 0;
+            } else if (state == 4 && !firstArgumentSeen) {
+                firstArgument = constant;
+                firstArgumentSeen = true;
+            }
+            if (opcode == 0xB3) {
+                String[] ref = pool.memberRef(u2(code, pc + 1));
+                if (binaryName.equals(ref[0]) && value != null) {
+                    res.put(ref[1], value);
+                }
+                value = null;
+            }
+            pc = next(code, pc, start);
+        }
+        return res;
+    }
+
+    // constant pushed on the stack by the instruction, or null if it is not a constant push
+    private static Object getPushedConstant(byte[] code, int pc, ConstantPool pool) {
+        int opcode = code[pc] & 0xFF;
+        if (opcode >= 0x02 && opcode <= 0x08) {
+            return opcode - 0x03;
+        }
+        switch (opcode) {
+            case 0x10:
+                return (int) code[pc + 1];
+            case 0x11:
+                return s2(code, pc + 1);
+            case 0x12:
+                return pool.constant(code[pc + 1] & 0xFF);
+            case 0x13:
+                return pool.constant(u2(code, pc + 1));
+            default:
+                return null;
+        }
+    }
+
+    // same literal as the one of the source, as Spoon prints it
+    private static String toLiteral(Object constant, char parameterKind) {
+        if (constant instanceof String && parameterKind == 'L') {
+            return "\"" + ((String) constant).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")
+                    .replace("\r", "\\r").replace("\t", "\\t") + "\"";
+        }
+        if (constant instanceof Integer && parameterKind == 'I') {
+            return constant.toString();
+        }
+        if (constant instanceof Integer && parameterKind == 'C') {
+            return "'" + (char) (int) (Integer) constant + "'";
+        }
+        return null;
+    }
+
+    // first letter of every parameter descriptor: I, C, L, [ ...
+    private static List<Character> getParameterKinds(String descriptor) {
+        List<Character> res = new ArrayList<>();
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            char kind = descriptor.charAt(i);
+            while (descriptor.charAt(i) == '[') {
+                i++;
+            }
+            if (descriptor.charAt(i) == 'L') {
+                i = descriptor.indexOf(';', i);
+            }
+            i++;
+            res.add(kind);
+        }
+        return res;
+    }
+
+    private static int next(byte[] code, int pc, int start) {
+        int opcode = code[pc] & 0xFF;
+        switch (opcode) {
+            case 0xAA: {
+                int aligned = pc + 1 + ((4 - (pc + 1 - start) % 4) % 4);
+                int low = readInt(code, aligned + 4);
+                int high = readInt(code, aligned + 8);
+                return aligned + 12 + 4 * (high - low + 1);
+            }
+            case 0xAB: {
+                int aligned = pc + 1 + ((4 - (pc + 1 - start) % 4) % 4);
+                return aligned + 8 + 8 * readInt(code, aligned + 4);
+            }
+            case 0xC4:
+                return pc + ((code[pc + 1] & 0xFF) == 0x84 ? 6 : 4);
+            default:
+                return pc + INSTRUCTION_LENGTHS[opcode];
+        }
+    }
+
+    private static int readInt(byte[] code, int offset) {
+        return ((code[offset] & 0xFF) << 24) | ((code[offset + 1] & 0xFF) << 16) | ((code[offset + 2] & 0xFF) << 8) | (code[offset + 3] & 0xFF);
+    }
+
+    private static class FieldInfo {
+        int access;
+        String name;
+        String descriptor;
+        String signature;
+    }
+
+    private static class ConstantPool {
+        private final int[] tags;
+        private final Object[] values;
+
+        ConstantPool(DataInputStream in) throws IOException {
+            int count = in.readUnsignedShort();
+            tags = new int[count];
+            values = new Object[count];
+            for (int i = 1; i < count; i++) {
+                int tag = in.readUnsignedByte();
+                tags[i] = tag;
+                switch (tag) {
+                    case CONSTANT_UTF8:
+                        values[i] = in.readUTF();
+                        break;
+                    case CONSTANT_INTEGER:
+                        values[i] = in.readInt();
+                        break;
+                    case CONSTANT_FLOAT:
+                        values[i] = in.readFloat();
+                        break;
+                    case CONSTANT_LONG:
+                        values[i++] = in.readLong();
+                        break;
+                    case CONSTANT_DOUBLE:
+                        values[i++] = in.readDouble();
+                        break;
+                    case CONSTANT_CLASS:
+                    case CONSTANT_STRING:
+                    case CONSTANT_METHOD_TYPE:
+                    case CONSTANT_MODULE:
+                    case CONSTANT_PACKAGE:
+                        values[i] = in.readUnsignedShort();
+                        break;
+                    case CONSTANT_METHOD_HANDLE:
+                        in.readUnsignedByte();
+                        values[i] = in.readUnsignedShort();
+                        break;
+                    case CONSTANT_DYNAMIC:
+                    case CONSTANT_INVOKE_DYNAMIC:
+                    default:
+                        if (tag < 9 || tag > CONSTANT_INVOKE_DYNAMIC) {
+                            throw new IOException("Unknown constant pool tag " + tag);
+                        }
+                        // field, method and interface method refs, name and types, dynamic constants: two indexes
+                        values[i] = new int[]{in.readUnsignedShort(), in.readUnsignedShort()};
+                        break;
+                }
+            }
+        }
+
+        String utf8(int index) {
+            return (String) values[index];
+        }
+
+        String className(int index) {
+            return utf8((Integer) values[index]);
+        }
+
+        // loadable constant: String, Integer, Float, Long or Double, or null for other constants
+        Object constant(int index) {
+            if (tags[index] == CONSTANT_STRING) {
+                return utf8((Integer) values[index]);
+            }
+            Object value = values[index];
+            return value instanceof Number ? value : null;
+        }
+
+        // owner binary name, member name and descriptor
+        String[] memberRef(int index) {
+            int[] ref = (int[]) values[index];
+            int[] nameAndType = (int[]) values[ref[1]];
+            return new String[]{className(ref[0]), utf8(nameAndType[0]), utf8(nameAndType[1])};
+        }
+    }
+
+    /**
+     * Parses field descriptors and generic signatures (JVMS 4.7.9.1) into type references named the way Spoon names
+     * them: nested types with a $, wildcards and type variables as type parameters.
+     */
+    private static class SignatureParser {
+        private static final Map<Character, String> PRIMITIVES = new HashMap<>();
+
+        static {
+            PRIMITIVES.put('B', "byte");
+            PRIMITIVES.put('C', "char");
+            PRIMITIVES.put('D', "double");
+            PRIMITIVES.put('F', "float");
+            PRIMITIVES.put('I', "int");
+            PRIMITIVES.put('J', "long");
+            PRIMITIVES.put('S', "short");
+            PRIMITIVES.put('Z', "boolean");
+            PRIMITIVES.put('V', "void");
+        }
+
+        private final String signature;
+        private int pos;
+
+        SignatureParser(String signature) {
+            this.signature = signature;
+        }
+
+        // <T:Ljava/lang/Object;U::Ljava/lang/Comparable<TU;>;>
+        void skipTypeParameters() {
+            if (signature.charAt(pos) != '<') {
+                return;
+            }
+            pos++;
+            while (signature.charAt(pos) != '>') {
+                pos = signature.indexOf(':', pos);
+                while (signature.charAt(pos) == ':') {
+                    pos++;
+                    if (signature.charAt(pos) != ':' && signature.charAt(pos) != '>') {
+                        readType();
+                    }
+                }
+            }
+            pos++;
+        }
+
+        TypeDeclaration.TypeRef readType() {
+            char c = signature.charAt(pos++);
+            if (PRIMITIVES.containsKey(c)) {
+                String name = PRIMITIVES.get(c);
+                return TypeDeclaration.TypeRef.of(name, name, null, null, false);
+            }
+            switch (c) {
+                case '[': {
+                    TypeDeclaration.TypeRef component = readType();
+                    return TypeDeclaration.TypeRef.of(component.qualifiedName + "[]", component.simpleName + "[]", component, null, false);
+                }
+                case 'T': {
+                    int end = signature.indexOf(';', pos);
+                    String name = signature.substring(pos, end);
+                    pos = end + 1;
+                    return TypeDeclaration.TypeRef.of(name, name, null, null, true);
+                }
+                case '*':
+                    return TypeDeclaration.TypeRef.of("?", "?", null, null, true);
+                case '+':
+                case '-':
+                    readType();
+                    return TypeDeclaration.TypeRef.of("?", "?", null, null, true);
+                case 'L':
+                    return readClassType();
+                default:
+                    throw new IllegalArgumentException(String.format("Invalid signature %s at %d", signature, pos - 1));
+            }
+        }
+
+        // Lpkg/Outer<TT;>.Inner<Ljava/lang/String;>; : only the arguments of the innermost type are kept, as in Spoon
+        private TypeDeclaration.TypeRef readClassType() {
+            StringBuilder name = new StringBuilder();
+            List<TypeDeclaration.TypeRef> arguments = null;
+            while (true) {
+                char c = signature.charAt(pos++);
+                if (c == ';') {
+                    break;
+                } else if (c == '<') {
+                    arguments = new ArrayList<>();
+                    while (signature.charAt(pos) != '>') {
+                        arguments.add(readType());
+                    }
+                    pos++;
+                } else if (c == '.') {
+                    name.append('$');
+                    arguments = null;
+                } else {
+                    name.append(c == '/' ? '.' : c);
+                }
+            }
+            String qualifiedName = name.toString();
+            String simpleName = qualifiedName.substring(Math.max(qualifiedName.lastIndexOf('.'), qualifiedName.lastIndexOf('$')) + 1);
+            return TypeDeclaration.TypeRef.of(qualifiedName, simpleName, null, arguments, false);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Lookup of translatable types (classes and enums) by qualified name, simple name, name fragment or camel humps,
+ * built once so that queries don't have to scan the whole model.
+ */
+public class ClassIndex {
+    private static final int GRAM = 3;
+    private static final int[] NONE = new int[0];
+
+    private final TypeDeclaration[] types;
+    // ids sorted by qualified name, for prefix queries
+    private final int[] byQualifiedName;
+    // ids sorted by camel hump initials of the simple name, e.g. "OL" for OrderLine
+    private final int[] byInitials;
+    private final String[] initials;
+    private final Map<String, int[]> bySimpleName = new HashMap<>();
+    // lower case trigrams of qualified names -> ids in table order
+    private final Map<String, int[]> trigrams = new HashMap<>();
+
+    public ClassIndex(Collection<TypeDeclaration> declarations) {
+        types = declarations.stream().filter(t -> t.kind != TypeDeclaration.Kind.OTHER).toArray(TypeDeclaration[]::new);
+        initials = new String[types.length];
+        Map<String, List<Integer>> simpleNames = new HashMap<>();
+        Map<String, List<Integer>> grams = new HashMap<>();
+        for (int id = 0; id < types.length; id++) {
+            initials[id] = getInitials(types[id].simpleName);
+            simpleNames.computeIfAbsent(types[id].simpleName.toLowerCase(), n -> new ArrayList<>()).add(id);
+            String name = types[id].qualifiedName.toLowerCase();
+            for (int i = 0; i + GRAM <= name.length(); i++) {
+                List<Integer> ids = grams.computeIfAbsent(name.substring(i, i + GRAM), g -> new ArrayList<>());
+                if (ids.isEmpty() || ids.get(ids.size() - 1) != id) {
+                    ids.add(id);
+                }
+            }
+        }
+        simpleNames.forEach((name, ids) -> bySimpleName.put(name, toArray(ids)));
+        grams.forEach((gram, ids) -> trigrams.put(gram, toArray(ids)));
+        byQualifiedName = sortedIds(Comparator.comparing(id -> types[id].qualifiedName));
+        byInitials = sortedIds(Comparator.comparing(id -> initials[id]));
+    }
+
+    public int size() {
+        return types.length;
+    }
+
+    /**
+     * @return types whose qualified name contains the query, in model order
+     */
+    public List<TypeDeclaration> findContaining(String query) {
+        List<TypeDeclaration> res = new ArrayList<>();
+        for (int id : getCandidateIds(query.toLowerCase())) {
+            if (types[id].qualifiedName.contains(query)) {
+                res.add(types[id]);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @return types whose qualified name starts with the prefix, sorted by name
+     */
+    public List<TypeDeclaration> findByPrefix(String prefix) {
+        List<TypeDeclaration> res = new ArrayList<>();
+        for (int i = lowerBound(byQualifiedName, prefix, id -> types[id].qualifiedName); i < byQualifiedName.length
+                && types[byQualifiedName[i]].qualifiedName.startsWith(prefix); i++) {
+            res.add(types[byQualifiedName[i]]);
+        }
+        return res;
+    }
+
+    /**
+     * @return types whose simple name humps start with the humps of the query, e.g. "OrLi" finds OrderLine and OrderLineItem
+     */
+    public List<TypeDeclaration> findByCamelHumps(String query) {
+        List<TypeDeclaration> res = new ArrayList<>();
+        String queryInitials = getInitials(query);
+        if (queryInitials.isEmpty()) {
+            return res;
+        }
+        List<String> queryHumps = getHumps(query);
+        for (int i = lowerBound(byInitials, queryInitials, id -> initials[id]); i < byInitials.length
+                && initials[byInitials[i]].startsWith(queryInitials); i++) {
+            TypeDeclaration type = types[byInitials[i]];
+            if (matchesHumps(getHumps(type.simpleName), queryHumps)) {
+                res.add(type);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @return the best matches for the query, best first: exact names, then simple name, prefix, camel hump and
+     * fragment matches, shorter names first
+     */
+    public List<TypeDeclaration> suggest(String query, int limit) {
+        Map<TypeDeclaration, Integer> ranks = new LinkedHashMap<>();
+        String lowerQuery = query.toLowerCase();
+        for (int id : getCandidateIds(lowerQuery)) {
+            String name = types[id].qualifiedName;
+            if (name.equals(query)) {
+                ranks.put(types[id], 0);
+            } else if (name.toLowerCase().contains(lowerQuery)) {
+                ranks.put(types[id], name.toLowerCase().endsWith("." + lowerQuery) ? 1 : 4);
+            }
+        }
+        for (int id : bySimpleName.getOrDefault(lowerQuery, NONE)) {
+            ranks.merge(types[id], 1, Math::min);
+        }
+        for (TypeDeclaration type : findByPrefix(query)) {
+            ranks.merge(type, 2, Math::min);
+        }
+        for (TypeDeclaration type : findByCamelHumps(query)) {
+            ranks.merge(type, 3, Math::min);
+        }
+        List<TypeDeclaration> res = new ArrayList<>(ranks.keySet());
+        res.sort(Comparator.<TypeDeclaration>comparingInt(ranks::get)
+                .thenComparingInt(t -> t.qualifiedName.length())
+                .thenComparing(t -> t.qualifiedName));
+        return res.size() > limit ? res.subList(0, limit) : res;
+    }
+
+    // ids of all types that may contain the lower case query, in table order
+    private int[] getCandidateIds(String lowerQuery) {
+        if (lowerQuery.length() < GRAM) {
+            int[] all = new int[types.length];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+        int[] res = null;
+        for (int i = 0; i + GRAM <= lowerQuery.length(); i++) {
+            int[] ids = trigrams.getOrDefault(lowerQuery.substring(i, i + GRAM), NONE);
+            if (res == null || ids.length < res.length) {
+                res = ids;
+            }
+        }
+        return res;
+    }
+
+    private int[] sortedIds(Comparator<Integer> comparator) {
+        Integer[] ids = new Integer[types.length];
+        Arrays.setAll(ids, i -> i);
+        Arrays.sort(ids, comparator);
+        return toArray(Arrays.asList(ids));
+    }
+
+    private static int lowerBound(int[] ids, String key, IntFunction<String> name) {
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (name.apply(ids[mid]).compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean matchesHumps(List<String> nameHumps, List<String> queryHumps) {
+        if (queryHumps.size() > nameHumps.size()) {
+            return false;
+        }
+        for (int i = 0; i < queryHumps.size(); i++) {
+            if (!nameHumps.get(i).startsWith(queryHumps.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> getHumps(String name) {
+        List<String> res = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.isUpperCase(name.charAt(i))) {
+                if (start >= 0) {
+                    res.add(name.substring(start, i));
+                }
+                start = i;
+            }
+        }
+        if (start >= 0) {
+            res.add(name.substring(start));
+        }
+        return res;
+    }
+
+    private static String getInitials(String name) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.isUpperCase(name.charAt(i))) {
+                sb.append(name.charAt(i));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        int[] res = new int[ids.size()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = ids.get(i);
+        }
+        return res;
+    }
+}
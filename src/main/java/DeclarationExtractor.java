@@ -0,0 +1,228 @@
+import java.io.File;
+import java.lang.annotation.Annotation;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import spoon.reflect.code.CtConstructorCall;
+import spoon.reflect.code.CtExpression;
+import spoon.reflect.code.CtLiteral;
+import spoon.reflect.cu.CompilationUnit;
+import spoon.reflect.declaration.CtAnnotation;
+import spoon.reflect.cu.SourcePosition;
+import spoon.reflect.declaration.CtAnnotationType;
+import spoon.reflect.declaration.CtAnonymousExecutable;
+import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtConstructor;
+import spoon.reflect.declaration.CtEnum;
+import spoon.reflect.declaration.CtEnumValue;
+import spoon.reflect.declaration.CtField;
+import spoon.reflect.declaration.CtInterface;
+import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.declaration.ModifierKind;
+import spoon.reflect.reference.CtArrayTypeReference;
+import spoon.reflect.reference.CtTypeParameterReference;
+import spoon.reflect.reference.CtTypeReference;
+import spoon.reflect.visitor.CtScanner;
+
+/**
+ * Converts Spoon types into {@link TypeDeclaration}s.
+ */
+public class DeclarationExtractor {
+    // qualified name followed by dimensions, e.g. b.B[][]
+    private static final Pattern WRITTEN_ARRAY = Pattern.compile("([\\w$]+(?:\\s*\\.\\s*[\\w$]+)+)((?:\\s*\\[\\s*\\])+)");
+    private static final Pattern IMPORT = Pattern.compile("^\\s*import\\s+(?:static\\s+)?([\\w.]+(?:\\.\\*)?)\\s*;", Pattern.MULTILINE);
+
+    private DeclarationExtractor() {
+    }
+
+    /**
+     * @return declarations of the given type and of all its nested types, found in a single scan of the type
+     */
+    public static List<TypeDeclaration> extract(CtType<?> type) {
+        Extractor extractor = new Extractor(getImports(type));
+        extractor.scan(type);
+        return extractor.res;
+    }
+
+    /**
+     * Visits the members of the types only, recording every type with its direct fields, superclass and enum
+     * constants. Bodies of methods, constructors and initializers are not walked, so neither are their local types.
+     */
+    private static class Extractor extends CtScanner {
+        private final List<String> imports;
+        private final List<TypeDeclaration> res = new ArrayList<>();
+        private final Deque<TypeDeclaration> openTypes = new ArrayDeque<>();
+
+        Extractor(List<String> imports) {
+            this.imports = imports;
+        }
+
+        @Override
+        public <T> void visitCtClass(CtClass<T> cls) {
+            TypeDeclaration declaration = declare(cls, TypeDeclaration.Kind.CLASS);
+            if (cls.getSuperclass() != null) {
+                declaration.superClass = toRef(cls.getSuperclass());
+            }
+            scanMembers(cls, declaration);
+        }
+
+        @Override
+        public <T extends Enum<?>> void visitCtEnum(CtEnum<T> ctEnum) {
+            TypeDeclaration declaration = declare(ctEnum, TypeDeclaration.Kind.ENUM);
+            for (CtEnumValue<?> ev : ctEnum.getEnumValues()) {
+                declaration.enumValues.add(new TypeDeclaration.EnumValueDeclaration(ev.getSimpleName(), getEnumValue(ev)));
+            }
+            scanMembers(ctEnum, declaration);
+        }
+
+        @Override
+        public <T> void visitCtInterface(CtInterface<T> ctInterface) {
+            scanMembers(ctInterface, declare(ctInterface, TypeDeclaration.Kind.OTHER));
+        }
+
+        @Override
+        public <A extends Annotation> void visitCtAnnotationType(CtAnnotationType<A> annotationType) {
+            scanMembers(annotationType, declare(annotationType, TypeDeclaration.Kind.OTHER));
+        }
+
+        @Override
+        public <T> void visitCtField(CtField<T> field) {
+            TypeDeclaration owner = openTypes.peek();
+            if (owner != null && owner.kind == TypeDeclaration.Kind.CLASS && !field.hasModifier(ModifierKind.PRIVATE)) {
+                owner.fields.add(new TypeDeclaration.FieldDeclaration(field.getSimpleName(), toRef(field.getType())));
+            }
+        }
+
+        @Override
+        public <T> void visitCtEnumValue(CtEnumValue<T> enumValue) {
+        }
+
+        @Override
+        public <T> void visitCtMethod(CtMethod<T> m) {
+        }
+
+        @Override
+        public <T> void visitCtConstructor(CtConstructor<T> c) {
+        }
+
+        @Override
+        public void visitCtAnonymousExecutable(CtAnonymousExecutable anonymousExec) {
+        }
+
+        private TypeDeclaration declare(CtType<?> type, TypeDeclaration.Kind kind) {
+            TypeDeclaration res = toDeclaration(type, kind, imports);
+            this.res.add(res);
+            return res;
+        }
+
+        private void scanMembers(CtType<?> type, TypeDeclaration declaration) {
+            openTypes.push(declaration);
+            scan(type.getTypeMembers());
+            openTypes.pop();
+        }
+    }
+
+    private static TypeDeclaration toDeclaration(CtType<?> type, TypeDeclaration.Kind kind, List<String> imports) {
+        File file = type.getPosition().getFile();
+        TypeDeclaration res = new TypeDeclaration(kind, type.getQualifiedName(), type.getSimpleName(),
+                getPackageName(type.getQualifiedName()), file == null ? null : file.getPath(), imports);
+        for (CtAnnotation<?> annotation : type.getAnnotations()) {
+            res.annotations.add(annotation.getAnnotationType().getQualifiedName());
+        }
+        return res;
+    }
+
+    private static String getEnumValue(CtEnumValue<?> ev) {
+        CtExpression<?> defaultExpression = ev.getDefaultExpression();
+        if (defaultExpression instanceof CtConstructorCall) {
+            List arguments = ((CtConstructorCall) defaultExpression).getArguments();
+
+            if (!arguments.isEmpty() && (arguments.get(0) instanceof CtLiteral) && (!((CtLiteral) arguments.get(0)).getType().getQualifiedName().equals("boolean"))) {
+                return arguments.get(0).toString();
+            }
+        }
+        return null;
+    }
+
+    static TypeDeclaration.TypeRef toRef(CtTypeReference<?> type) {
+        if (type instanceof CtArrayTypeReference) {
+            TypeDeclaration.TypeRef written = toWrittenRef((CtArrayTypeReference<?>) type);
+            if (written != null) {
+                return written;
+            }
+            TypeDeclaration.TypeRef component = toRef(((CtArrayTypeReference<?>) type).getComponentType());
+            return TypeDeclaration.TypeRef.of(type.getQualifiedName(), type.getSimpleName(), component, null, false);
+        }
+        List<TypeDeclaration.TypeRef> arguments = type.getActualTypeArguments().isEmpty() ? null
+                : type.getActualTypeArguments().stream().map(DeclarationExtractor::toRef).collect(Collectors.toList());
+        String qualifiedName = type.getQualifiedName();
+        String simpleName = type.getSimpleName();
+        // unknown types of the package of the class written qualified in type arguments, List<a.A> of a class of
+        // package a gives a.a.A named a.A
+        if (simpleName.indexOf('.') > 0) {
+            qualifiedName = simpleName;
+            simpleName = simpleName.substring(simpleName.lastIndexOf('.') + 1);
+        }
+        return TypeDeclaration.TypeRef.of(qualifiedName, simpleName, null, arguments, type instanceof CtTypeParameterReference);
+    }
+
+    /**
+     * Spoon loses the simple name of qualified arrays of unknown types in type arguments, {@code List<b.B[]>} of a
+     * class of package a gives {@code a.b[]}, which happens whenever the type is not part of the model yet, e.g. with
+     * --lazy. The reference is then taken as written in the source.
+     *
+     * @return reference to the array as written, or null if Spoon got it right
+     */
+    private static TypeDeclaration.TypeRef toWrittenRef(CtArrayTypeReference<?> type) {
+        SourcePosition position = type.getPosition();
+        if (!position.isValidPosition() || position.getCompilationUnit() == null || position.getCompilationUnit().getFile() == null) {
+            return null;
+        }
+        String source = position.getCompilationUnit().getOriginalSourceCode();
+        if (source == null || position.getSourceEnd() >= source.length()) {
+            return null;
+        }
+        Matcher matcher = WRITTEN_ARRAY.matcher(source.substring(position.getSourceStart(), position.getSourceEnd() + 1));
+        if (!matcher.matches()) {
+            return null;
+        }
+        String name = matcher.group(1).replaceAll("\\s", "");
+        String simpleName = name.substring(name.lastIndexOf('.') + 1);
+        if (simpleName.equals(type.getArrayType().getSimpleName())) {
+            return null;
+        }
+        TypeDeclaration.TypeRef res = TypeDeclaration.TypeRef.of(name, simpleName, null, null, false);
+        for (int i = 0; i < type.getDimensionCount(); i++) {
+            res = TypeDeclaration.TypeRef.of(res.qualifiedName + "[]", res.simpleName + "[]", res, null, false);
+        }
+        return res;
+    }
+
+    static String getPackageName(String qualifiedName) {
+        int nested = qualifiedName.indexOf('$');
+        String topLevel = nested < 0 ? qualifiedName : qualifiedName.substring(0, nested);
+        int dot = topLevel.lastIndexOf('.');
+        return dot < 0 ? "" : topLevel.substring(0, dot);
+    }
+
+    // Spoon does not keep the original import list, but it is needed to resolve references of partially built models
+    private static List<String> getImports(CtType<?> type) {
+        SourcePosition position = type.getPosition();
+        CompilationUnit cu = position.getCompilationUnit();
+        if (cu == null || cu.getFile() == null) {
+            return Collections.emptyList();
+        }
+        List<String> res = new ArrayList<>();
+        Matcher matcher = IMPORT.matcher(cu.getOriginalSourceCode());
+        while (matcher.find()) {
+            res.add(matcher.group(1));
+        }
+        return res;
+    }
+}
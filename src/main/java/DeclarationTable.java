@@ -0,0 +1,148 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All known {@link TypeDeclaration}s by qualified name.
+ */
+public class DeclarationTable {
+    private final Map<String, TypeDeclaration> declarations = new LinkedHashMap<>();
+    private ClassIndex index;
+    private volatile int version;
+    private volatile boolean frozen;
+
+    public void add(TypeDeclaration declaration) {
+        checkNotFrozen();
+        declarations.put(declaration.qualifiedName, declaration);
+        index = null;
+        version++;
+    }
+
+    public void addAll(Collection<TypeDeclaration> declarations) {
+        declarations.forEach(this::add);
+    }
+
+    public TypeDeclaration remove(String qualifiedName) {
+        checkNotFrozen();
+        index = null;
+        version++;
+        return declarations.remove(qualifiedName);
+    }
+
+    /**
+     * Makes the table read only, so that it can be shared between threads without locking.
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Declarations of a shared model can not be changed");
+        }
+    }
+
+    /**
+     * @return a number changing whenever declarations are added or removed
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public boolean contains(String qualifiedName) {
+        return declarations.containsKey(qualifiedName);
+    }
+
+    public TypeDeclaration get(String qualifiedName) {
+        return declarations.get(qualifiedName);
+    }
+
+    public Collection<TypeDeclaration> values() {
+        return declarations.values();
+    }
+
+    /**
+     * @return lookup index of the current declarations, built on first use after a change
+     */
+    public synchronized ClassIndex getIndex() {
+        if (index == null) {
+            index = new ClassIndex(declarations.values());
+        }
+        return index;
+    }
+
+    /**
+     * Finds the declaration a type reference points to, or null for arrays, type parameters and types outside of the model.
+     * <p>
+     * References of types that were parsed in a different model than the referencing one are only known by the name
+     * Spoon guessed for them, so the imports of the referencing type are used to find the actual declaration.
+     */
+    public TypeDeclaration resolve(TypeDeclaration from, TypeDeclaration.TypeRef ref) {
+        if (ref == null || ref.isArray() || ref.typeParameter) {
+            return null;
+        }
+        TypeDeclaration res = declarations.get(ref.qualifiedName);
+        if (res != null || from == null) {
+            return res;
+        }
+        for (String candidate : getCandidateNames(from, ref.qualifiedName)) {
+            res = declarations.get(candidate);
+            if (res != null) {
+                return res;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return names the referenced type may actually have, most likely first
+     */
+    static List<String> getCandidateNames(TypeDeclaration from, String name) {
+        List<String> names = new ArrayList<>();
+        names.add(name);
+        String relative = null;
+        if (!from.packageName.isEmpty() && name.startsWith(from.packageName + ".")) {
+            relative = name.substring(from.packageName.length() + 1);
+        } else if (!name.isEmpty() && Character.isUpperCase(name.charAt(0))) {
+            relative = name;
+            names.add(from.packageName.isEmpty() ? name : from.packageName + "." + name);
+        }
+        if (relative != null) {
+            String outer = relative.split("\\.")[0];
+            for (String imp : from.imports) {
+                if (imp.endsWith(".*")) {
+                    names.add(imp.substring(0, imp.length() - 1) + relative);
+                } else if (imp.endsWith("." + outer)) {
+                    names.add(imp.substring(0, imp.length() - outer.length()) + relative);
+                }
+            }
+        }
+        List<String> res = new ArrayList<>();
+        for (String candidate : names) {
+            res.add(candidate);
+            res.add(toBinaryName(candidate));
+        }
+        return res;
+    }
+
+    // a.b.Outer.Inner -> a.b.Outer$Inner
+    private static String toBinaryName(String name) {
+        String[] parts = name.split("\\.");
+        StringBuilder sb = new StringBuilder();
+        boolean inType = false;
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                sb.append(inType ? "$" : ".");
+            }
+            sb.append(parts[i]);
+            inType = inType || (!parts[i].isEmpty() && Character.isUpperCase(parts[i].charAt(0)));
+        }
+        return sb.toString();
+    }
+}
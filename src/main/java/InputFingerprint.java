@@ -0,0 +1,154 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import spoon.Launcher;
+
+/**
+ * Hash of everything a translation depends on: the code of the translation, its parameters and the content of the
+ * sources, classes, batch list and type mappings they point to. A run with the same fingerprint as the last one, whose
+ * files were not touched since, would write exactly the same files.
+ */
+public class InputFingerprint {
+    private static String implementation;
+
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[8192];
+
+    private InputFingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static String compute(Map<String, String> params) throws IOException {
+        return compute(params, getImplementation());
+    }
+
+    static String compute(Map<String, String> params, String implementation) throws IOException {
+        InputFingerprint fingerprint = new InputFingerprint();
+        fingerprint.update(implementation);
+        for (Map.Entry<String, String> param : new TreeMap<>(params).entrySet()) {
+            fingerprint.update(param.getKey());
+            fingerprint.update(param.getValue());
+        }
+        if (params.containsKey("-p")) {
+            for (String root : params.get("-p").split(":")) {
+                fingerprint.updateTree(Paths.get(root), ".java");
+            }
+        }
+        if (params.containsKey("-cp")) {
+            for (String root : params.get("-cp").split(":")) {
+                fingerprint.updateTree(Paths.get(root), ".class");
+            }
+        }
+        for (String file : new String[]{"--batch", "-tm"}) {
+            if (params.containsKey(file)) {
+                fingerprint.updateFile(Paths.get(params.get(file)));
+            }
+        }
+        return fingerprint.toHex();
+    }
+
+    /**
+     * @return hash of the classes of the transformer, a JAR or a directory, and of the name of the Spoon JAR, which
+     * holds its version, so that the output of another version of the tool is not taken as up to date
+     */
+    static synchronized String getImplementation() throws IOException {
+        if (implementation == null) {
+            InputFingerprint fingerprint = new InputFingerprint();
+            Path classes = getCodeSource(JavaToTStransformer.class);
+            if (classes != null) {
+                fingerprint.updateTree(classes, ".class");
+            }
+            fingerprint.update(String.valueOf(getCodeSource(Launcher.class)));
+            implementation = fingerprint.toHex();
+        }
+        return implementation;
+    }
+
+    private static Path getCodeSource(Class<?> cls) throws IOException {
+        CodeSource source = cls.getProtectionDomain().getCodeSource();
+        if (source == null || source.getLocation() == null) {
+            return null;
+        }
+        try {
+            return Paths.get(source.getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private String toHex() {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return true if the state file holds the fingerprint and the files written by the last run, as listed in the
+     * manifest, are untouched
+     */
+    public static boolean isUpToDate(Path stateFile, String fingerprint, Path manifest) throws IOException {
+        if (!Files.isRegularFile(stateFile) || !Files.isRegularFile(manifest)) {
+            return false;
+        }
+        String last = new String(Files.readAllBytes(stateFile), StandardCharsets.UTF_8).trim();
+        return last.equals(fingerprint) && new OutputWriter(manifest).isManifestIntact();
+    }
+
+    public static void save(Path stateFile, String fingerprint) throws IOException {
+        Files.createDirectories(stateFile.toAbsolutePath().getParent());
+        Files.write(stateFile, (fingerprint + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void update(String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
+    // a JAR given as a root is hashed as a whole
+    private void updateTree(Path root, String extension) throws IOException {
+        if (!Files.isDirectory(root)) {
+            updateFile(root);
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(f -> f.toString().endsWith(extension) && Files.isRegularFile(f)).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            updateFile(file);
+        }
+    }
+
+    private void updateFile(Path file) throws IOException {
+        update(file.toString());
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+        digest.update((byte) 0);
+    }
+}
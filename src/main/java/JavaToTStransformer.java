@@ -1,201 +1,430 @@
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
-import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.log4j.Logger;
 import spoon.Launcher;
-import spoon.reflect.code.CtConstructorCall;
-import spoon.reflect.code.CtExpression;
-import spoon.reflect.code.CtLiteral;
-import spoon.reflect.declaration.CtClass;
-import spoon.reflect.declaration.CtEnum;
-import spoon.reflect.declaration.CtEnumValue;
-import spoon.reflect.declaration.CtField;
 import spoon.reflect.declaration.CtType;
-import spoon.reflect.declaration.ModifierKind;
-import spoon.reflect.reference.CtArrayTypeReference;
-import spoon.reflect.reference.CtTypeReference;
-import spoon.support.reflect.reference.CtArrayTypeReferenceImpl;
 
 public class JavaToTStransformer {
     private static final Logger logger = Logger.getLogger(JavaToTStransformer.class);
 
-    public final static Set<String> validArgs = new HashSet<>(Arrays.asList("p", "i", "o", "sr", "tr", "fr"));
-    private static final Map<String, String> JAVA_TS_TYPE_MATCHING = new HashMap<>();
-
-    static {
-        JAVA_TS_TYPE_MATCHING.put("java.lang.String", "string");
-        JAVA_TS_TYPE_MATCHING.put("java.lang.Character", "string");
-        JAVA_TS_TYPE_MATCHING.put("char", "string");
-        JAVA_TS_TYPE_MATCHING.put("byte", "number");
-        JAVA_TS_TYPE_MATCHING.put("java.lang.Byte", "number");
-        JAVA_TS_TYPE_MATCHING.put("int", "number");
-        JAVA_TS_TYPE_MATCHING.put("java.lang.Integer", "number");
-        JAVA_TS_TYPE_MATCHING.put("float", "number");
-        JAVA_TS_TYPE_MATCHING.put("java.lang.Float", "number");
-        JAVA_TS_TYPE_MATCHING.put("double", "number");
-        JAVA_TS_TYPE_MATCHING.put("java.lang.Double", "number");
-        JAVA_TS_TYPE_MATCHING.put("long", "number");
-        JAVA_TS_TYPE_MATCHING.put("java.lang.Long", "number");
-        JAVA_TS_TYPE_MATCHING.put("boolean", "boolean");
-        JAVA_TS_TYPE_MATCHING.put("java.lang.Boolean", "boolean");
-        JAVA_TS_TYPE_MATCHING.put("com.google.gson.JsonObject", "Dict<string>");
-        JAVA_TS_TYPE_MATCHING.put("com.google.gson.JsonArray", "any[]");
-
-    }
+    public final static Set<String> validArgs = new HashSet<>(Arrays.asList("p", "cp", "i", "o", "sr", "tr", "fr", "c", "m", "serve", "-watch", "j", "-lazy", "-batch", "-metrics", "-metrics-out", "tm", "-stream"));
 
     private final Map<String, TypescriptType> visitedTypes = new HashMap<>();
+    // reverse dependency index of visitedTypes: referenced type name -> names of the visited types referencing it
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+    private final Map<String, Set<String>> dependencies = new HashMap<>();
+    private final DeclarationTable declarations;
     private static final String INDENTATION = "    ";
+    private static final TypescriptEmitter DEFAULT_EMITTER = new TypescriptEmitter(INDENTATION);
     private final Map<String, String> params;
-    private Launcher launcher = new Launcher();
+    private ModelCache cache;
+    private SourceIndex sourceIndex;
+    private final Set<Path> loadedFiles = new HashSet<>();
     public final boolean doIndent;
     public final String indentation;
+    private final TypescriptEmitter emitter;
+    private final TypeMapper typeMapper;
+    private final OutputPaths outputPaths;
+    private final Metrics metrics = new Metrics();
 
     public void clear() {
         visitedTypes.clear();
+        dependents.clear();
+        dependencies.clear();
     }
 
     public JavaToTStransformer(Map<String, String> params) {
+        this(params, new DeclarationTable());
+    }
+
+    /**
+     * Creates a transformer over an already built model, e.g. one per request of a {@link TranslationServer}.
+     */
+    public JavaToTStransformer(Map<String, String> params, DeclarationTable declarations) {
+        this(params, declarations, createTypeMapper(params, declarations), new OutputPaths(params));
+    }
+
+    /**
+     * Creates a translation context of a {@link TranslationModel}, sharing its caches of mapped types and output paths.
+     */
+    JavaToTStransformer(Map<String, String> params, DeclarationTable declarations, TypeMapper typeMapper, OutputPaths outputPaths) {
         this.params = params;
+        this.declarations = declarations;
         this.doIndent = true;
         this.indentation = INDENTATION;
+        this.emitter = DEFAULT_EMITTER;
+        this.typeMapper = typeMapper;
+        this.outputPaths = outputPaths;
     }
 
     public JavaToTStransformer(boolean doIndent) {
         this.doIndent = doIndent;
         this.indentation = doIndent ? INDENTATION : "";
+        this.emitter = doIndent ? DEFAULT_EMITTER : new TypescriptEmitter(indentation);
         this.params = new HashMap<>();
+        this.declarations = new DeclarationTable();
+        this.typeMapper = new TypeMapper(declarations);
+        this.outputPaths = new OutputPaths(params);
+    }
+
+    static TypeMapper createTypeMapper(Map<String, String> params, DeclarationTable declarations) {
+        if (!params.containsKey("-tm")) {
+            return new TypeMapper(declarations);
+        }
+        try {
+            return new TypeMapper(declarations, TypeMapper.readMappings(Paths.get(params.get("-tm"))));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(String.format("Cannot read type mappings %s", params.get("-tm")), e);
+        }
+    }
+
+    public DeclarationTable getDeclarations() {
+        return declarations;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
     }
 
     public void parseType(CtType<?> type) {
-        if (type == null || visitedTypes.containsKey(type.getQualifiedName())) {
+        if (type == null) {
+            return;
+        }
+        if (!declarations.contains(type.getQualifiedName())) {
+            for (CtType<?> modelType : type.getFactory().getModel().getAllTypes()) {
+                declarations.addAll(DeclarationExtractor.extract(modelType));
+            }
+        }
+        parseType(declarations.get(type.getQualifiedName()));
+    }
+
+    public void parseType(TypeDeclaration type) {
+        visit(type, this::translate);
+    }
+
+    /**
+     * Same as {@link #parseType(TypeDeclaration)}, translating the reachable types on several threads. The result
+     * does not depend on the parallelism: translations are only inserted into visitedTypes afterwards, in the order
+     * the sequential traversal visits them.
+     */
+    public void parseType(TypeDeclaration type, int parallelism) {
+        if (parallelism <= 1 || type == null) {
+            parseType(type);
+            return;
+        }
+        Map<String, Translation> translations = new ConcurrentHashMap<>();
+        Set<String> discovered = ConcurrentHashMap.newKeySet();
+        discovered.addAll(visitedTypes.keySet());
+        ForkJoinPool pool = metrics.newForkJoinPool(parallelism);
+        try {
+            pool.invoke(new TranslationTask(type, discovered, translations));
+        } finally {
+            pool.shutdown();
+            awaitTermination(pool);
+        }
+        visit(type, t -> translations.get(t.qualifiedName));
+    }
+
+    // the workers have counted their allocations once it returns
+    private static void awaitTermination(ForkJoinPool pool) {
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void visit(TypeDeclaration type, Function<TypeDeclaration, Translation> translator) {
+        if (type == null || visitedTypes.containsKey(type.qualifiedName)) {
             return;
         }
-        visitedTypes.put(type.getQualifiedName(), null);
-        TypescriptType res = null;
-        if (type instanceof CtEnum) {
-            res = parseEnum((CtEnum) type);
-        } else if (type instanceof CtClass) {
-            res = parseClass((CtClass) type);
+        visitedTypes.put(type.qualifiedName, null);
+        Translation translation = translator.apply(type);
+        metrics.increment(Metrics.TYPES_VISITED);
+        for (String dependency : translation.dependencies) {
+            dependents.computeIfAbsent(dependency, n -> new HashSet<>()).add(type.qualifiedName);
+            dependencies.computeIfAbsent(type.qualifiedName, n -> new HashSet<>()).add(dependency);
         }
-        visitedTypes.put(type.getQualifiedName(), res);
+        for (TypeDeclaration reference : translation.references) {
+            visit(reference, translator);
+        }
+        visitedTypes.put(type.qualifiedName, translation.type);
     }
 
-    private TypescriptClass parseClass(CtClass cls) {
-        final TypescriptClass tsClass = new TypescriptClass(cls.getSimpleName());
+    private Translation translate(TypeDeclaration type) {
+        Translation res = new Translation();
+        if (type.kind == TypeDeclaration.Kind.ENUM) {
+            res.type = parseEnum(type);
+        } else if (type.kind == TypeDeclaration.Kind.CLASS) {
+            res.type = parseClass(type, res);
+        }
+        return res;
+    }
+
+    private TypescriptClass parseClass(TypeDeclaration cls, Translation translation) {
+        final TypescriptClass tsClass = new TypescriptClass(cls.simpleName);
 
-        if (cls.getSuperclass() != null) {
-            tsClass.superClassName = cls.getSuperclass().getSimpleName();
-            tsClass.imports.add(cls.getSuperclass().getDeclaration());
-            parseType(cls.getSuperclass().getTypeDeclaration());
+        if (cls.superClass != null) {
+            addDependencies(cls, cls.superClass, translation.dependencies);
+            tsClass.superClassName = cls.superClass.simpleName;
+            TypeDeclaration superClass = declarations.resolve(cls, cls.superClass);
+            tsClass.imports.add(superClass);
+            translation.references.add(superClass);
         }
 
-        cls.getElements(f -> f instanceof CtField && !((CtField) f).hasModifier(ModifierKind.PRIVATE) && f.getParent() == cls).forEach(f -> {
-            CtField field = (CtField) f;
-            if (field.getType().getDeclaration() != null) {
-                parseType(field.getType().getDeclaration());
+        for (TypeDeclaration.FieldDeclaration field : cls.fields) {
+            addDependencies(cls, field.type, translation.dependencies);
+            TypeDeclaration fieldType = declarations.resolve(cls, field.type);
+            if (fieldType != null) {
+                translation.references.add(fieldType);
             }
-            for (CtTypeReference<?> actualTypeArgument : getActualTypes(field.getType())) {
-                tsClass.imports.add(actualTypeArgument.getDeclaration());
-                parseType(actualTypeArgument.getDeclaration());
+            for (TypeDeclaration actualTypeArgument : getActualTypes(cls, field.type)) {
+                tsClass.imports.add(actualTypeArgument);
+                translation.references.add(actualTypeArgument);
             }
-            tsClass.imports.add(field.getType().getDeclaration());
-            tsClass.fields.add(new TypescriptField(getType(field.getType()), field.getSimpleName()));
-
-        });
+            tsClass.imports.add(fieldType);
+            tsClass.fields.add(new TypescriptField(getType(field.type), field.name));
+            metrics.increment(Metrics.FIELDS_MAPPED);
+        }
 
-        tsClass.path = getOutPath(cls);
+        tsClass.qualifiedName = cls.qualifiedName;
+        tsClass.path = outputPaths.getPath(cls);
         return tsClass;
     }
 
-    private Set<CtTypeReference> getActualTypes(CtTypeReference type) {
-        Set<CtTypeReference> res = new HashSet<>();
-        if (!type.getActualTypeArguments().isEmpty()) {
-            res.addAll(type.getActualTypeArguments().stream().flatMap(e -> getActualTypes(e).stream()).filter(e -> e.getDeclaration() != null).collect(Collectors.toSet()));
-        } else if (type.getDeclaration() != null) {
-            res.add(type);
+    // unresolved references are indexed by name as well, so that types declared later on are picked up
+    private void addDependencies(TypeDeclaration from, TypeDeclaration.TypeRef ref, Set<String> res) {
+        if (ref.isArray()) {
+            addDependencies(from, ref.componentType, res);
+            return;
+        }
+        if (!ref.typeParameter) {
+            TypeDeclaration declaration = declarations.resolve(from, ref);
+            res.add(declaration == null ? ref.qualifiedName : declaration.qualifiedName);
+        }
+        for (TypeDeclaration.TypeRef typeArgument : ref.typeArguments) {
+            addDependencies(from, typeArgument, res);
         }
-        return res;
     }
 
-    private String getOutPath(CtType type) {
-        if (!params.containsKey("-tr")) {
-            return null;
+    /**
+     * Translates again the given types and all visited types depending on them, after their declarations have changed.
+     *
+     * @return output paths of all types that were translated again or newly visited
+     */
+    Set<String> reparse(Collection<String> changed) {
+        Set<String> affected = new TreeSet<>();
+        Deque<String> queue = new ArrayDeque<>(changed);
+        while (!queue.isEmpty()) {
+            String name = queue.poll();
+            if (affected.add(name)) {
+                queue.addAll(dependents.getOrDefault(name, Collections.emptySet()));
+            }
+        }
+        affected.retainAll(visitedTypes.keySet());
+
+        Set<String> paths = new TreeSet<>();
+        for (String name : affected) {
+            TypescriptType old = visitedTypes.remove(name);
+            if (old != null && old.path != null) {
+                paths.add(old.path);
+            }
+            for (String dependency : dependencies.getOrDefault(name, Collections.emptySet())) {
+                dependents.get(dependency).remove(name);
+            }
+            dependencies.remove(name);
         }
-        String fname = type.getPosition().getFile().getName().replaceFirst("[.][^.]+$", "").replaceAll("([A-Z]+)", "-$1").toLowerCase();
-        if (fname.startsWith("-")) {
-            fname = fname.substring(1);
+        Set<String> before = new HashSet<>(visitedTypes.keySet());
+        for (String name : affected) {
+            parseType(declarations.get(name));
         }
-        String path = Paths.get(params.get("-tr")).resolve(type.getPosition().getFile().getParent().split(params.get("-sr"))[1]).resolve(fname + ".ts").toString();
-        return path;
+        for (Map.Entry<String, TypescriptType> entry : visitedTypes.entrySet()) {
+            if (!before.contains(entry.getKey()) && entry.getValue() != null && entry.getValue().path != null) {
+                paths.add(entry.getValue().path);
+            }
+        }
+        logger.info(String.format("Translated again %d types affected by changes of %s", affected.size(), changed));
+        return paths;
+    }
+
+    Set<TypeDeclaration> getActualTypes(TypeDeclaration from, TypeDeclaration.TypeRef type) {
+        return typeMapper.getActualTypes(from, type);
     }
 
-    private TypescriptEnum parseEnum(CtEnum<?> member) {
-        String name = member.getSimpleName();
+    private TypescriptEnum parseEnum(TypeDeclaration member) {
+        String name = member.simpleName;
         TypescriptEnum resEnum = new TypescriptEnum(name);
-        for (CtEnumValue<?> ev : member.getEnumValues()) {
-            String val = null;
-            CtExpression<?> defaultExpression = ev.getDefaultExpression();
+        for (TypeDeclaration.EnumValueDeclaration ev : member.enumValues) {
+            resEnum.fields.add(new TypescriptEnumField(ev.name, ev.value));
+        }
+        resEnum.qualifiedName = member.qualifiedName;
+        resEnum.path = outputPaths.getPath(member);
+        return resEnum;
+    }
 
-            if (defaultExpression instanceof CtConstructorCall) {
-                List arguments = ((CtConstructorCall) defaultExpression).getArguments();
+    String getType(TypeDeclaration.TypeRef type) {
+        return typeMapper.getType(type);
+    }
 
-                if (!arguments.isEmpty() && (arguments.get(0) instanceof CtLiteral) && (!((CtLiteral) arguments.get(0)).getType().getQualifiedName().equals("boolean"))) {
-                    val = arguments.get(0).toString();
-                }
+    void parse() throws IOException {
+        clear();
+        TypeDeclaration startClass = findStartingClass(params.getOrDefault("-i", null));
+        try (Metrics.Phase ignored = metrics.start("translation")) {
+            if (sourceIndex != null) {
+                loadReachable(startClass);
             }
-            resEnum.fields.add(new TypescriptEnumField(ev.getSimpleName(), val));
+            parseType(startClass, params.get("-j") == null ? 1 : Integer.parseInt(params.get("-j")));
         }
-        resEnum.path = getOutPath(member);
-        return resEnum;
     }
 
-    private String getType(CtTypeReference<?> type) {
-        if (type instanceof CtArrayTypeReference) {
-            return getType(((CtArrayTypeReferenceImpl) type).getComponentType()) + "[]";
-        } else if (type instanceof CtTypeReference) {
-            if ("java.util.Set".equals(type.getQualifiedName())) {
-                return MessageFormat.format("Set<{0}>", getType(type.getActualTypeArguments().get(0)));
+    /**
+     * Translates all roots selected by the selector into the same graph, so that types they share are translated once.
+     */
+    void parseBatch(BatchSelector selector) throws IOException {
+        clear();
+        try (Metrics.Phase ignored = metrics.start("translation")) {
+            List<TypeDeclaration> roots = selectRoots(selector);
+            int parallelism = params.get("-j") == null ? 1 : Integer.parseInt(params.get("-j"));
+            for (TypeDeclaration root : roots) {
+                parseType(root, parallelism);
+            }
+        }
+    }
+
+    private List<TypeDeclaration> selectRoots(BatchSelector selector) throws IOException {
+        if (sourceIndex != null) {
+            loadFiles(withReferences(selector.locate(sourceIndex)));
+        }
+        List<TypeDeclaration> roots = selector.select(declarations);
+        logger.info(String.format("Translating %d classes selected by the batch", roots.size()));
+        if (sourceIndex != null) {
+            for (TypeDeclaration root : roots) {
+                loadReachable(root);
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * Translates and writes the types reachable from -i or --batch one output file at a time, each file being written
+     * as soon as it is translated. Only the reachable declarations grouped by file are kept until then, not their
+     * translations, so memory does not grow with the size of the output.
+     */
+    void stream() throws IOException {
+        clear();
+        Map<String, List<TypeDeclaration>> byFile = new LinkedHashMap<>();
+        try (Metrics.Phase ignored = metrics.start("translation")) {
+            List<TypeDeclaration> roots;
+            if (params.containsKey("--batch")) {
+                roots = selectRoots(BatchSelector.read(Paths.get(params.get("--batch"))));
+            } else {
+                TypeDeclaration startClass = findStartingClass(params.getOrDefault("-i", null));
+                if (sourceIndex != null) {
+                    loadReachable(startClass);
+                }
+                roots = Collections.singletonList(startClass);
             }
-            if ("java.util.List".equals(type.getQualifiedName()) || "java.util.Collection".equals(type.getQualifiedName())) {
-                return getType(type.getActualTypeArguments().get(0)) + "[]";
+            Set<String> reachable = new HashSet<>();
+            for (TypeDeclaration root : roots) {
+                collectReachable(root, reachable, byFile);
             }
-            if ("java.util.Map".equals(type.getQualifiedName())) {
-                return MessageFormat.format("Map<{0}, {1}>", getType(type.getActualTypeArguments().get(0)), getType(type.getActualTypeArguments().get(1)));
+            logger.info(String.format("Streaming %d types to %d files", reachable.size(), byFile.size()));
+        }
+        try (Metrics.Phase ignored = metrics.start("output")) {
+            OutputWriter writer = OutputWriter.open(params, metrics);
+            StringBuilder fileSb = new StringBuilder();
+            List<TypescriptType> typesInFile = new ArrayList<>();
+            for (Iterator<Map.Entry<String, List<TypeDeclaration>>> it = byFile.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, List<TypeDeclaration>> entry = it.next();
+                typesInFile.clear();
+                for (TypeDeclaration type : entry.getValue()) {
+                    typesInFile.add(translate(type).type);
+                    metrics.increment(Metrics.TYPES_VISITED);
+                }
+                fileSb.setLength(0);
+                emitFile(entry.getKey(), typesInFile, fileSb);
+                writer.write(Paths.get(entry.getKey()), fileSb);
+                it.remove();
             }
+            writer.saveManifest();
+        }
+    }
 
-            if (JAVA_TS_TYPE_MATCHING.containsKey(type.getQualifiedName())) {
-                return JAVA_TS_TYPE_MATCHING.get(type.getQualifiedName());
+    // same pre-order as visit, iterative as the graph of a whole code base can be deep
+    private void collectReachable(TypeDeclaration root, Set<String> reachable, Map<String, List<TypeDeclaration>> byFile) {
+        Deque<Iterator<TypeDeclaration>> stack = new ArrayDeque<>();
+        stack.push(Collections.singletonList(root).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<TypeDeclaration> next = stack.peek();
+            if (!next.hasNext()) {
+                stack.pop();
+                continue;
             }
-            return type.getSimpleName();
-        } else {
-            String msg = "Should not have reached here ... " + type.toString();
-            logger.error(msg);
-            throw new RuntimeException(msg);
+            TypeDeclaration type = next.next();
+            if (type == null || !reachable.add(type.qualifiedName)) {
+                continue;
+            }
+            if (type.kind != TypeDeclaration.Kind.OTHER) {
+                byFile.computeIfAbsent(outputPaths.getPath(type), p -> new ArrayList<>()).add(type);
+            }
+            stack.push(getReferences(type).iterator());
         }
     }
 
-    void parse() throws IOException {
-        clear();
-        CtClass startClass = findStartingClass(params.getOrDefault("-i", null));
-        parseType(startClass);
+    // types parseClass references, in the same order, without translating them
+    private List<TypeDeclaration> getReferences(TypeDeclaration type) {
+        List<TypeDeclaration> res = new ArrayList<>();
+        if (type.kind != TypeDeclaration.Kind.CLASS) {
+            return res;
+        }
+        if (type.superClass != null) {
+            res.add(declarations.resolve(type, type.superClass));
+        }
+        for (TypeDeclaration.FieldDeclaration field : type.fields) {
+            TypeDeclaration fieldType = declarations.resolve(type, field.type);
+            if (fieldType != null) {
+                res.add(fieldType);
+            }
+            res.addAll(getActualTypes(type, field.type));
+        }
+        return res;
     }
 
-    private CtClass findStartingClass(String name) throws IOException {
+    private TypeDeclaration findStartingClass(String name) throws IOException {
         BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
         String searchQuery = name;
         while (searchQuery == null) {
@@ -203,9 +432,8 @@ public class JavaToTStransformer {
             System.out.println("Enter java class qualified name:");
             searchQuery = br.readLine();
         }
-        String finalSearchQuery = searchQuery;
-        List<CtClass> elements = launcher.getModel().getElements(element -> element != null && element.getQualifiedName().contains(finalSearchQuery));
-        CtClass startClass;
+        List<TypeDeclaration> elements = findCandidates(searchQuery);
+        TypeDeclaration startClass;
         if (elements.size() > 1) {
             int selectedOption = -1;
             while (selectedOption < 0) {
@@ -213,7 +441,7 @@ public class JavaToTStransformer {
                 System.out.println("------------------------------------------------------------------------------------");
                 System.out.println("Select element to translate:");
                 for (int i = 0; i < elements.size(); i++) {
-                    System.out.println(String.format("  [%d]: %s", i, elements.get(i).getQualifiedName()));
+                    System.out.println(String.format("  [%d]: %s", i, elements.get(i).qualifiedName));
                 }
                 String input = "";
                 input = br.readLine();
@@ -225,104 +453,190 @@ public class JavaToTStransformer {
         } else if (elements.size() == 1) {
             startClass = elements.get(0);
         } else {
-            String msg = String.format("Nothing found for: %s", searchQuery);
+            String msg = getNothingFoundMessage(searchQuery);
             logger.info(msg);
             throw new IllegalArgumentException(msg);
         }
         return startClass;
     }
 
-    public static void main(String[] args) throws IOException {
+    List<TypeDeclaration> findCandidates(String query) throws IOException {
+        if (sourceIndex != null) {
+            List<Path> files = sourceIndex.find(query);
+            // the files of other candidates are only parsed if chosen
+            loadFiles(files.size() == 1 ? withReferences(files) : files);
+        }
+        return declarations.getIndex().findContaining(query);
+    }
+
+    // the files and the ones the index finds from them, to be parsed in a single model
+    private Set<Path> withReferences(Collection<Path> files) throws IOException {
+        Set<Path> res = new TreeSet<>(files);
+        res.addAll(sourceIndex.findReferenced(files));
+        return res;
+    }
+
+    String getNothingFoundMessage(String query) {
+        List<TypeDeclaration> suggestions = declarations.getIndex().suggest(query, 10);
+        String msg = String.format("Nothing found for: %s", query);
+        if (!suggestions.isEmpty()) {
+            msg += "\nDid you mean:\n" + suggestions.stream().map(t -> "  " + t.qualifiedName).collect(Collectors.joining("\n"));
+        }
+        return msg;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
         Map<String, String> params = parseArgs(args);
         for (int i = 0; i < args.length; i++) {
             logger.debug(String.format("args[%d]=%s", i, args[i]));
         }
-        if (!params.containsKey("-p")) {
-            throw new IllegalArgumentException("Missing required parameter (-p) with source files classpath");
+        if (!params.containsKey("-p") && !params.containsKey("-cp")) {
+            throw new IllegalArgumentException("Missing required parameter (-p) with source files classpath or (-cp) with compiled classes");
+        }
+        if (params.containsKey("--metrics") && !Arrays.asList("json", "prom").contains(params.get("--metrics"))) {
+            throw new IllegalArgumentException("Parameter --metrics expects json or prom");
+        }
+        if (params.containsKey("--stream")) {
+            if (!params.containsKey("-tr")) {
+                throw new IllegalArgumentException("Missing required parameter (-tr) with the directory to stream files to");
+            }
+            if (params.containsKey("-serve") || params.containsKey("--watch")) {
+                throw new IllegalArgumentException("--stream keeps no translations to serve or update and can not be combined with -serve or --watch");
+            }
         }
 
         JavaToTStransformer javaToTStransformer = new JavaToTStransformer(params);
         javaToTStransformer.buildLauncher();
+        logHeapUsage("model");
+
+        if (params.containsKey("-serve")) {
+            if (params.containsKey("--lazy")) {
+                throw new IllegalArgumentException("-serve shares one model between requests and can not be combined with --lazy");
+            }
+            new TranslationServer(params, TranslationModel.of(params, javaToTStransformer.declarations)).start();
+            return;
+        }
+        if (params.containsKey("--watch")) {
+            if (!params.containsKey("-i") && !params.containsKey("--batch")) {
+                throw new IllegalArgumentException("Missing required parameter (-i) or (--batch) with the classes to watch");
+            }
+            if (!params.containsKey("-p")) {
+                throw new IllegalArgumentException("Missing required parameter (-p) with the source files to watch");
+            }
+            run(javaToTStransformer, params);
+            try (SourceWatcher watcher = new SourceWatcher(javaToTStransformer, params)) {
+                watcher.watch();
+            }
+            return;
+        }
 
+        boolean interactive = !params.containsKey("-i") && !params.containsKey("--batch");
         do {
             try {
                 run(javaToTStransformer, params);
             } catch (IllegalArgumentException e) {
-                if (params.containsKey("-i")) {
+                if (!interactive) {
                     throw e;
                 }
             }
-        } while (!params.containsKey("-i"));
+        } while (interactive);
+        logHeapUsage("translation");
     }
 
-    private static void run(JavaToTStransformer javaToTStransformer, Map<String, String> params) throws IOException {
-        javaToTStransformer.parse();
-
-        if (params.containsKey("-tr")) {
-            Map<String, List<TypescriptType>> byFilename = groupByFilename(javaToTStransformer);
-
-            byFilename = filterIfExistsWithSameFirstLine(byFilename);
+    private static void logHeapUsage(String phase) {
+        long used = 0;
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                used += pool.getUsage().getUsed();
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        logger.info(String.format("Heap after %s: %d MB used, %d MB peak", phase, used >> 20, peak >> 20));
+    }
 
-            for (Map.Entry<String, List<TypescriptType>> entry : byFilename.entrySet()) {
-                StringBuilder fileSb = new StringBuilder();
-                Path path = Paths.get(entry.getKey());
+    static void run(JavaToTStransformer javaToTStransformer, Map<String, String> params) throws IOException {
+        if (params.containsKey("--stream")) {
+            javaToTStransformer.stream();
+        } else {
+            translateAndWrite(javaToTStransformer, params);
+        }
+        if (params.containsKey("--metrics")) {
+            javaToTStransformer.metrics.report(params.get("--metrics"), params.containsKey("--metrics-out") ? Paths.get(params.get("--metrics-out")) : null);
+        }
+    }
 
-                if (params.containsKey("-fr")) {
-                    Stream<CtType> importType = entry.getValue().stream().filter(i -> i instanceof TypescriptClass)
-                            .flatMap(l -> ((TypescriptClass) l).imports.stream())
-                            .filter(e -> e != null && !path.toString().equals(javaToTStransformer.getOutPath(e)));
-                    fileSb.append(javaToTStransformer.createImports(importType));
-                    fileSb.append("\n\n");
-                }
+    private static void translateAndWrite(JavaToTStransformer javaToTStransformer, Map<String, String> params) throws IOException {
+        if (params.containsKey("--batch")) {
+            javaToTStransformer.parseBatch(BatchSelector.read(Paths.get(params.get("--batch"))));
+        } else {
+            javaToTStransformer.parse();
+        }
 
-                List<String> types = entry.getValue().stream().map(Object::toString).collect(Collectors.toList());
-                fileSb.append(String.join("\n", String.join("\n\n", types)).trim());
+        try (Metrics.Phase ignored = javaToTStransformer.metrics.start("output")) {
+            if (params.containsKey("-tr")) {
+                writeFiles(javaToTStransformer, params);
+            } else {
+                System.out.println("\n\n---------------------------------------------------------------------------\n" + javaToTStransformer.toString());
+            }
+        }
+    }
 
+    /**
+     * Writes the files of the visited types to -tr, as the command line does.
+     */
+    public void writeFiles() throws IOException {
+        writeFiles(this, params);
+    }
 
-                logger.info(String.format("%s to %s", (Files.exists(path) ? "Appending" : "Writing"), path));
-                if (Files.notExists(path.getParent())) {
-                    Files.createDirectories(path.getParent());
-                }
-                Files.write(path, ((Files.exists(path) ? "\n\n" : "") + fileSb.toString()).getBytes(), Files.exists(path) ? StandardOpenOption.APPEND : StandardOpenOption.CREATE_NEW);
-            }
-        } else {
-            System.out.println("\n\n---------------------------------------------------------------------------\n" + javaToTStransformer.toString());
+    static void writeFiles(JavaToTStransformer javaToTStransformer, Map<String, String> params) throws IOException {
+        OutputWriter writer = OutputWriter.open(params, javaToTStransformer.metrics);
+        StringBuilder fileSb = new StringBuilder();
+        for (Map.Entry<String, List<TypescriptType>> entry : groupByFilename(javaToTStransformer).entrySet()) {
+            fileSb.setLength(0);
+            javaToTStransformer.emitFile(entry.getKey(), entry.getValue(), fileSb);
+            writer.write(Paths.get(entry.getKey()), fileSb);
         }
+        writer.saveManifest();
     }
 
-    private static Map<String, List<TypescriptType>> filterIfExistsWithSameFirstLine(Map<String, List<TypescriptType>> byFilename) {
-        Map<String, List<TypescriptType>> result = new HashMap<>();
-        for (Map.Entry<String, List<TypescriptType>> fileToTypes : byFilename.entrySet()) {
-            String fpath = fileToTypes.getKey();
-            String fileContent = null;
-            try {
-                fileContent = readFile(fpath);
-                ArrayList<TypescriptType> typesInFile = new ArrayList<>();
-                for (TypescriptType type : fileToTypes.getValue()) {
-                    if (!fileContent.contains(type.toString().split("\n")[0].trim())) {
-                        typesInFile.add(type);
-                    }
-                }
-                if (!typesInFile.isEmpty()) {
-                    result.put(fpath, typesInFile);
-                }
-            } catch (IOException e) {
-                logger.error(e);
-            }
+    // types of a file are sorted by name, the order they are visited in depends on the mode
+    private void emitFile(String path, List<TypescriptType> typesInFile, Appendable out) throws IOException {
+        typesInFile.sort(Comparator.comparing(t -> t.qualifiedName));
+        if (params.containsKey("-fr")) {
+            Stream<TypeDeclaration> importType = typesInFile.stream().filter(i -> i instanceof TypescriptClass)
+                    .flatMap(l -> ((TypescriptClass) l).imports.stream())
+                    .filter(e -> e != null && !path.equals(outputPaths.getPath(e)));
+            out.append(createImports(importType));
+            out.append("\n\n");
         }
-        return result;
+        emitter.emit(typesInFile, out);
     }
 
-    private static String readFile(String pathStr) throws IOException {
-        Path path = Paths.get(pathStr);
-        if (Files.exists(path) && !Files.isDirectory(path)) {
-            return new String(Files.readAllBytes(path));
+    /**
+     * Replaces the given output files with the current translation, leaving the ones whose content did not change
+     * untouched and deleting the ones no translated type is left for.
+     */
+    void rewriteFiles(Collection<String> paths) throws IOException {
+        Map<String, List<TypescriptType>> byFilename = groupByFilename(this);
+        OutputWriter writer = OutputWriter.open(params, metrics);
+        StringBuilder fileSb = new StringBuilder();
+        for (String file : paths) {
+            List<TypescriptType> typesInFile = byFilename.get(file);
+            if (typesInFile == null) {
+                // the types of the file are gone, e.g. their source file was deleted
+                writer.delete(Paths.get(file));
+                continue;
+            }
+            fileSb.setLength(0);
+            emitFile(file, typesInFile, fileSb);
+            writer.write(Paths.get(file), fileSb);
         }
-        return "";
+        writer.saveManifest();
     }
 
     public String toString() {
-        return String.join("\n", visitedTypes.values().stream().map(Object::toString).collect(Collectors.toList())).trim();
+        return String.join("\n", visitedTypes.values().stream().filter(Objects::nonNull).map(emitter::render).collect(Collectors.toList())).trim();
     }
 
     private static Map<String, List<TypescriptType>> groupByFilename(JavaToTStransformer javaToTStransformer) {
@@ -339,26 +653,221 @@ public class JavaToTStransformer {
         return byFilename;
     }
 
-    private String createImports(Stream<CtType> type) {
-
-        Set<String> collect = type.map(t -> {
-            String fr = params.get("-fr");
-            String tsFilePath = getOutPath(t);
-            String tsRelativeToRoot = Paths.get(fr).relativize(Paths.get(tsFilePath)).toString().split("\\.ts")[0];
-            return String.format("import { %s } from '@%s';", t.getSimpleName(), tsRelativeToRoot);
-        }).collect(Collectors.toSet());
+    String createImports(Stream<TypeDeclaration> type) {
+        Set<String> collect = type.map(outputPaths::getImport).collect(Collectors.toCollection(TreeSet::new));
+        metrics.add(Metrics.IMPORTS_GENERATED, collect.size());
         return String.join("\n", collect);
     }
 
-    private void buildLauncher() {
-        for (String p : params.get("-p").split(":")) {
-            launcher.addInputResource(p);
+    void buildLauncher() throws IOException {
+        if (params.containsKey("-c")) {
+            cache = new ModelCache(Paths.get(params.get("-c")));
+        }
+        try (Metrics.Phase ignored = metrics.start("model")) {
+            if (params.containsKey("-cp")) {
+                List<TypeDeclaration> compiled = ClassFileReader.load(params.get("-cp"));
+                logger.info(String.format("Read %d types from compiled classes %s", compiled.size(), params.get("-cp")));
+                declarations.addAll(compiled);
+            }
+            if (!params.containsKey("-p")) {
+                return;
+            }
+            List<Path> sources = listSources(params.get("-p"));
+            if (params.containsKey("--lazy")) {
+                sourceIndex = new SourceIndex(sources, getParallelism(), metrics);
+                logger.info(String.format("Indexed %d source files, they will be parsed once reached", sourceIndex.size()));
+            } else {
+                loadSources(sources).values().forEach(declarations::addAll);
+                if (cache != null) {
+                    cache.retain(sources);
+                }
+            }
+        }
+    }
+
+    private List<TypeDeclaration> loadFiles(Collection<Path> files) throws IOException {
+        List<Path> toLoad = files.stream().filter(loadedFiles::add).collect(Collectors.toList());
+        List<TypeDeclaration> res = new ArrayList<>();
+        if (!toLoad.isEmpty()) {
+            loadSources(toLoad).values().forEach(res::addAll);
+            declarations.addAll(res);
+        }
+        return res;
+    }
+
+    private void loadReachable(TypeDeclaration root) throws IOException {
+        loadReachable(Collections.singletonList(root));
+    }
+
+    /**
+     * Loads the source files of all types reachable from the given ones. Does nothing without --lazy, all the sources
+     * are loaded then.
+     * <p>
+     * The files the index finds by scanning are parsed together, each Spoon model having a fixed cost. The references
+     * of the declarations are then followed a level at a time, for what the scan missed.
+     *
+     * @return declarations of the loaded files
+     */
+    List<TypeDeclaration> loadReachable(List<TypeDeclaration> roots) throws IOException {
+        List<TypeDeclaration> res = new ArrayList<>();
+        if (sourceIndex == null) {
+            return res;
+        }
+        Set<Path> rootFiles = new TreeSet<>();
+        for (TypeDeclaration root : roots) {
+            if (root != null && root.sourceFile != null) {
+                rootFiles.add(Paths.get(root.sourceFile));
+            }
+        }
+        res.addAll(loadFiles(sourceIndex.findReferenced(rootFiles)));
+        List<TypeDeclaration> pending = new ArrayList<>(roots);
+        pending.addAll(res);
+        while (!pending.isEmpty()) {
+            Set<Path> files = new TreeSet<>();
+            for (TypeDeclaration type : pending) {
+                if (type.superClass != null) {
+                    locateReferences(type, type.superClass, files);
+                }
+                for (TypeDeclaration.FieldDeclaration field : type.fields) {
+                    locateReferences(type, field.type, files);
+                }
+            }
+            pending = loadFiles(files);
+            res.addAll(pending);
+        }
+        return res;
+    }
+
+    private void locateReferences(TypeDeclaration from, TypeDeclaration.TypeRef ref, Set<Path> files) {
+        if (ref.isArray()) {
+            locateReferences(from, ref.componentType, files);
+            return;
+        }
+        for (TypeDeclaration.TypeRef typeArgument : ref.typeArguments) {
+            locateReferences(from, typeArgument, files);
+        }
+        if (ref.typeParameter || declarations.resolve(from, ref) != null) {
+            return;
+        }
+        for (String candidate : DeclarationTable.getCandidateNames(from, ref.qualifiedName)) {
+            Path file = sourceIndex.locate(candidate);
+            if (file != null && !loadedFiles.contains(file)) {
+                files.add(file);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return declarations of every given source file, loaded from the cache or parsed by Spoon
+     */
+    Map<Path, List<TypeDeclaration>> loadSources(List<Path> sources) throws IOException {
+        Map<Path, List<TypeDeclaration>> byFile = new LinkedHashMap<>();
+        List<Path> changed = new ArrayList<>();
+        for (Path source : sources) {
+            List<TypeDeclaration> cached = cache == null ? null : cache.load(source);
+            if (cached == null) {
+                changed.add(source);
+            }
+            byFile.put(source, cached);
+        }
+        metrics.add(Metrics.SOURCES_CACHED, sources.size() - changed.size());
+        metrics.add(Metrics.SOURCES_PARSED, changed.size());
+        if (cache != null) {
+            logger.info(String.format("%d of %d source files loaded from cache %s", sources.size() - changed.size(), sources.size(), params.get("-c")));
+        }
+
+        if (!changed.isEmpty()) {
+            // separate models only pay off when they are really built at the same time
+            int parallelism = getParallelism();
+            Map<Path, List<TypeDeclaration>> extracted = parallelism <= 1 ? parseSources(changed) : parseSources(changed, parallelism);
+            for (Path source : changed) {
+                List<TypeDeclaration> declared = extracted.getOrDefault(source, Collections.emptyList());
+                byFile.put(source, declared);
+                if (cache != null) {
+                    cache.store(source, declared);
+                }
+            }
+        }
+        return byFile;
+    }
+
+    private int getParallelism() {
+        return Math.min(params.get("-j") == null ? 1 : Integer.parseInt(params.get("-j")), Runtime.getRuntime().availableProcessors());
+    }
+
+    // the Spoon model is only referenced locally, so that it can be collected as soon as declarations are extracted
+    static Map<Path, List<TypeDeclaration>> parseSources(List<Path> sources) throws IOException {
+        Launcher launcher = new Launcher();
+        for (Path p : sources) {
+            launcher.addInputResource(p.toString());
         }
         launcher.getEnvironment().setAutoImports(true);
         launcher.getEnvironment().setNoClasspath(true);
-        logger.info("Starting to build source code model");
+        logger.info(String.format("Starting to build source code model of %d files", sources.size()));
         launcher.buildModel();
         logger.info("Done building source code model");
+
+        Map<Path, List<TypeDeclaration>> extracted = new HashMap<>();
+        for (CtType<?> type : launcher.getModel().getAllTypes()) {
+            Path file = type.getPosition().getFile().getCanonicalFile().toPath();
+            extracted.computeIfAbsent(file, f -> new ArrayList<>()).addAll(DeclarationExtractor.extract(type));
+        }
+        return extracted;
+    }
+
+    /**
+     * Parses shards of the sources in separate models on several threads. References between shards are resolved
+     * afterwards by the {@link DeclarationTable}, the same way as for models built from the cache.
+     */
+    Map<Path, List<TypeDeclaration>> parseSources(List<Path> sources, int parallelism) throws IOException {
+        List<Path> roots = params.containsKey("-p") ? listRoots(params.get("-p")) : Collections.emptyList();
+        List<List<Path>> shards = SourceShards.split(sources, roots, parallelism);
+        logger.info(String.format("Building source code model in %d shards on %d threads", shards.size(), parallelism));
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, shards.size()));
+        try {
+            List<Future<Map<Path, List<TypeDeclaration>>>> futures = new ArrayList<>();
+            for (List<Path> shard : shards) {
+                futures.add(executor.submit(metrics.track(() -> parseSources(shard))));
+            }
+            Map<Path, List<TypeDeclaration>> res = new HashMap<>();
+            for (Future<Map<Path, List<TypeDeclaration>>> future : futures) {
+                res.putAll(future.get());
+            }
+            return res;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Path> listRoots(String roots) throws IOException {
+        List<Path> res = new ArrayList<>();
+        for (String p : roots.split(":")) {
+            res.add(Paths.get(p).toFile().getCanonicalFile().toPath());
+        }
+        return res;
+    }
+
+    static List<Path> listSources(String roots) throws IOException {
+        List<Path> res = new ArrayList<>();
+        for (String p : roots.split(":")) {
+            try (Stream<Path> files = Files.walk(Paths.get(p))) {
+                files.filter(f -> f.toString().endsWith(".java") && Files.isRegularFile(f)).sorted().forEach(res::add);
+            }
+        }
+        List<Path> canonical = new ArrayList<>();
+        for (Path source : res) {
+            canonical.add(source.toFile().getCanonicalFile().toPath());
+        }
+        return canonical;
     }
 
     private static Map<String, String> parseArgs(String[] args) {
@@ -366,7 +875,7 @@ public class JavaToTStransformer {
         for (int i = 0; i < args.length; i++) {
             String arg = args[i];
             if (isValidArg(arg)) {
-                res.put(arg, isValidArg(args[i + 1]) ? null : args[i + 1]);
+                res.put(arg, i + 1 >= args.length || isValidArg(args[i + 1]) ? null : args[i + 1]);
             }
         }
         return res;
@@ -376,6 +885,43 @@ public class JavaToTStransformer {
         return arg.startsWith("-") && validArgs.contains(arg.substring(1));
     }
 
+    /**
+     * Translation of a single type and the types it references, in the order they have to be visited.
+     */
+    private static class Translation {
+        TypescriptType type;
+        final List<TypeDeclaration> references = new ArrayList<>();
+        final Set<String> dependencies = new HashSet<>();
+    }
+
+    private class TranslationTask extends RecursiveAction {
+        private final TypeDeclaration type;
+        private final Set<String> discovered;
+        private final Map<String, Translation> translations;
+
+        TranslationTask(TypeDeclaration type, Set<String> discovered, Map<String, Translation> translations) {
+            this.type = type;
+            this.discovered = discovered;
+            this.translations = translations;
+        }
+
+        @Override
+        protected void compute() {
+            if (!discovered.add(type.qualifiedName)) {
+                return;
+            }
+            Translation translation = translate(type);
+            translations.put(type.qualifiedName, translation);
+            List<TranslationTask> subtasks = new ArrayList<>();
+            for (TypeDeclaration reference : translation.references) {
+                if (reference != null && !discovered.contains(reference.qualifiedName)) {
+                    subtasks.add(new TranslationTask(reference, discovered, translations));
+                }
+            }
+            invokeAll(subtasks);
+        }
+    }
+
     public abstract static class TypescriptType {
         String name;
         String qualifiedName;
@@ -399,7 +945,7 @@ public class JavaToTStransformer {
         }
     }
 
-    public class TypescriptEnum extends TypescriptType {
+    public static class TypescriptEnum extends TypescriptType {
         final List<TypescriptEnumField> fields = new ArrayList<>();
 
         public TypescriptEnum(String name) {
@@ -408,24 +954,12 @@ public class JavaToTStransformer {
 
         @Override
         public String toString() {
-            StringBuilder sb = new StringBuilder();
-            sb.append(MessageFormat.format("export enum {0} '{' \n", name));
-
-            for (int i = 0; i < this.fields.size(); i++) {
-                TypescriptEnumField val = this.fields.get(i);
-                sb.append(indentation + val.name + " = " + (val.value == null ? "'" + val.name + "'" : val.value));
-                if (i != this.fields.size() - 1) {
-                    sb.append(",");
-                }
-                sb.append("\n");
-            }
-            sb.append("}");
-            return sb.toString();
+            return DEFAULT_EMITTER.render(this);
         }
     }
 
-    public class TypescriptClass extends TypescriptType {
-        public List<CtType> imports = new ArrayList<>();
+    public static class TypescriptClass extends TypescriptType {
+        public List<TypeDeclaration> imports = new ArrayList<>();
         String superClassName;
         final List<TypescriptField> fields = new ArrayList<>();
 
@@ -435,15 +969,7 @@ public class JavaToTStransformer {
 
         @Override
         public String toString() {
-            StringBuilder sb = new StringBuilder();
-            String extendsClause = this.superClassName != null ? " extends " + this.superClassName : "";
-            sb.append(MessageFormat.format("export interface {0}{1} '{'\n", this.name, extendsClause));
-            for (TypescriptField field : this.fields) {
-                sb.append(MessageFormat.format(indentation + "{0}: {1};\n", field.name, field.clazz));
-            }
-            sb.append("}\n");
-
-            return sb.toString();
+            return DEFAULT_EMITTER.render(this);
         }
     }
 
@@ -0,0 +1,229 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wall time, CPU time and allocated bytes of the phases of a run, and counts of what was done, reported as JSON or as
+ * Prometheus text.
+ * <p>
+ * CPU time is the one of the whole process, so that it includes the translation threads of -j. Allocations are the
+ * ones of the thread running a phase, and of the work it hands over to pools, see {@link #track} and
+ * {@link #newForkJoinPool}. Pool threads are usually gone by the end of the phase, so they report their allocations
+ * themselves.
+ */
+public class Metrics {
+    public static final String TYPES_VISITED = "types_visited";
+    public static final String FIELDS_MAPPED = "fields_mapped";
+    public static final String IMPORTS_GENERATED = "imports_generated";
+    public static final String SOURCES_PARSED = "sources_parsed";
+    public static final String SOURCES_CACHED = "sources_cached";
+    public static final String FILES_READ = "files_read";
+    public static final String FILES_WRITTEN = "files_written";
+    public static final String FILES_SKIPPED = "files_skipped";
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, PhaseTotals> phases = new LinkedHashMap<>();
+    // bytes allocated by the tasks and workers of pools, added to the phases open meanwhile
+    private final LongAdder pooledAllocations = new LongAdder();
+
+    public Metrics() {
+        for (String counter : new String[]{TYPES_VISITED, FIELDS_MAPPED, IMPORTS_GENERATED, SOURCES_PARSED, SOURCES_CACHED,
+                FILES_READ, FILES_WRITTEN, FILES_SKIPPED}) {
+            counters.put(counter, new LongAdder());
+        }
+    }
+
+    public void increment(String counter) {
+        add(counter, 1);
+    }
+
+    public void add(String counter, long value) {
+        counters.computeIfAbsent(counter, c -> new LongAdder()).add(value);
+    }
+
+    public long get(String counter) {
+        LongAdder adder = counters.get(counter);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Starts measuring a phase, until the returned phase is closed. Phases run several times are summed up.
+     */
+    public Phase start(String name) {
+        return new Phase(name);
+    }
+
+    /**
+     * @return the task, counting what it allocates on a thread of a pool
+     */
+    public <T> Callable<T> track(Callable<T> task) {
+        return () -> {
+            long start = getCurrentThreadAllocatedBytes();
+            try {
+                return task.call();
+            } finally {
+                pooledAllocations.add(getCurrentThreadAllocatedBytes() - start);
+            }
+        };
+    }
+
+    /**
+     * @return pool whose workers count what they allocate once they terminate, so it has to be shut down and its
+     * termination awaited before the phase is closed
+     */
+    public ForkJoinPool newForkJoinPool(int parallelism) {
+        return new ForkJoinPool(parallelism, pool -> new ForkJoinWorkerThread(pool) {
+            private long start;
+
+            @Override
+            protected void onStart() {
+                super.onStart();
+                start = getCurrentThreadAllocatedBytes();
+            }
+
+            @Override
+            protected void onTermination(Throwable exception) {
+                pooledAllocations.add(getCurrentThreadAllocatedBytes() - start);
+                super.onTermination(exception);
+            }
+        }, null, false);
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\n  \"phases\": {");
+        String separator = "\n";
+        for (Map.Entry<String, PhaseTotals> entry : snapshotPhases().entrySet()) {
+            PhaseTotals totals = entry.getValue();
+            sb.append(separator).append(String.format(Locale.ROOT,
+                    "    \"%s\": {\"runs\": %d, \"wallSeconds\": %.6f, \"cpuSeconds\": %.6f, \"allocatedBytes\": %d}",
+                    entry.getKey(), totals.runs, totals.wallNanos / 1e9, totals.cpuNanos / 1e9, totals.allocatedBytes));
+            separator = ",\n";
+        }
+        sb.append("\n  },\n  \"counters\": {");
+        separator = "\n";
+        for (Map.Entry<String, Long> entry : snapshotCounters().entrySet()) {
+            sb.append(separator).append(String.format("    \"%s\": %d", entry.getKey(), entry.getValue()));
+            separator = ",\n";
+        }
+        return sb.append("\n  }\n}\n").toString();
+    }
+
+    public String toPrometheus() {
+        Map<String, PhaseTotals> snapshot = snapshotPhases();
+        StringBuilder sb = new StringBuilder();
+        sb.append("# TYPE j2ts_phase_runs counter\n");
+        snapshot.forEach((name, totals) -> sb.append(String.format("j2ts_phase_runs{phase=\"%s\"} %d\n", name, totals.runs)));
+        sb.append("# TYPE j2ts_phase_wall_seconds counter\n");
+        snapshot.forEach((name, totals) -> sb.append(String.format(Locale.ROOT, "j2ts_phase_wall_seconds{phase=\"%s\"} %.6f\n", name, totals.wallNanos / 1e9)));
+        sb.append("# TYPE j2ts_phase_cpu_seconds counter\n");
+        snapshot.forEach((name, totals) -> sb.append(String.format(Locale.ROOT, "j2ts_phase_cpu_seconds{phase=\"%s\"} %.6f\n", name, totals.cpuNanos / 1e9)));
+        sb.append("# TYPE j2ts_phase_allocated_bytes counter\n");
+        snapshot.forEach((name, totals) -> sb.append(String.format("j2ts_phase_allocated_bytes{phase=\"%s\"} %d\n", name, totals.allocatedBytes)));
+        for (Map.Entry<String, Long> entry : snapshotCounters().entrySet()) {
+            sb.append(String.format("# TYPE j2ts_%s_total counter\nj2ts_%s_total %d\n", entry.getKey(), entry.getKey(), entry.getValue()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the report in the given format ("json" or "prom") to the file, or to the standard error if there is none.
+     */
+    public void report(String format, Path file) throws IOException {
+        String report;
+        if ("json".equals(format)) {
+            report = toJson();
+        } else if ("prom".equals(format)) {
+            report = toPrometheus();
+        } else {
+            throw new IllegalArgumentException(String.format("Unknown metrics format %s, expected json or prom", format));
+        }
+        if (file == null) {
+            System.err.print(report);
+        } else {
+            Files.write(file, report.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private synchronized Map<String, PhaseTotals> snapshotPhases() {
+        Map<String, PhaseTotals> res = new LinkedHashMap<>();
+        phases.forEach((name, totals) -> res.put(name, totals.copy()));
+        return res;
+    }
+
+    private Map<String, Long> snapshotCounters() {
+        Map<String, Long> res = new TreeMap<>();
+        counters.forEach((name, adder) -> res.put(name, adder.sum()));
+        return res;
+    }
+
+    private synchronized void record(String name, long wallNanos, long cpuNanos, long allocatedBytes) {
+        PhaseTotals totals = phases.computeIfAbsent(name, n -> new PhaseTotals());
+        totals.runs++;
+        totals.wallNanos += wallNanos;
+        totals.cpuNanos += cpuNanos;
+        totals.allocatedBytes += allocatedBytes;
+    }
+
+    private static long getProcessCpuTime() {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+        }
+        return 0;
+    }
+
+    private static long getCurrentThreadAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return Math.max(0, ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId()));
+        }
+        return 0;
+    }
+
+    private static class PhaseTotals {
+        long runs;
+        long wallNanos;
+        long cpuNanos;
+        long allocatedBytes;
+
+        PhaseTotals copy() {
+            PhaseTotals res = new PhaseTotals();
+            res.runs = runs;
+            res.wallNanos = wallNanos;
+            res.cpuNanos = cpuNanos;
+            res.allocatedBytes = allocatedBytes;
+            return res;
+        }
+    }
+
+    public class Phase implements AutoCloseable {
+        private final String name;
+        private final long wallStart = System.nanoTime();
+        private final long cpuStart = getProcessCpuTime();
+        // a phase is closed by the thread that started it
+        private final long allocatedStart = getCurrentThreadAllocatedBytes();
+        private final long pooledStart = pooledAllocations.sum();
+
+        private Phase(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void close() {
+            long allocated = getCurrentThreadAllocatedBytes() - allocatedStart + pooledAllocations.sum() - pooledStart;
+            record(name, System.nanoTime() - wallStart, getProcessCpuTime() - cpuStart, allocated);
+        }
+    }
+}
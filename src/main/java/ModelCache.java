@@ -0,0 +1,134 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.log4j.Logger;
+
+/**
+ * On-disk cache of extracted {@link TypeDeclaration}s, one entry per source file keyed by its path and holding the hash
+ * of the content it was extracted from. A changed file replaces its entry, entries of files that are gone are deleted
+ * by {@link #retain}.
+ */
+public class ModelCache {
+    private static final Logger logger = Logger.getLogger(ModelCache.class);
+
+    // bump whenever extraction or TypeDeclaration changes, so that stale entries are never read
+    private static final String FORMAT_VERSION = "3";
+
+    private final Path dir;
+    // hashes of the sources whose entry was missing or stale, until their new entry is stored
+    private final Map<Path, String> contentHashes = new HashMap<>();
+
+    public ModelCache(Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+    }
+
+    /**
+     * @return cached declarations of the source file or null if the file is not cached or has changed since
+     */
+    @SuppressWarnings("unchecked")
+    public List<TypeDeclaration> load(Path source) throws IOException {
+        Path entry = getEntry(source);
+        // hashed on every load, the file may have changed since the last one, e.g. in --watch mode
+        String contentHash = hash(source);
+        contentHashes.put(source, contentHash);
+        if (Files.notExists(entry)) {
+            return null;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(Files.newInputStream(entry))) {
+            if (!contentHash.equals(in.readUTF())) {
+                return null;
+            }
+            List<TypeDeclaration> res = (List<TypeDeclaration>) in.readObject();
+            contentHashes.remove(source);
+            return res;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            logger.warn(String.format("Ignoring unreadable cache entry %s: %s", entry, e));
+            return null;
+        }
+    }
+
+    public void store(Path source, List<TypeDeclaration> declarations) throws IOException {
+        Path entry = getEntry(source);
+        // the hash of the content that was parsed, not of the one the file may have now
+        String loadedHash = contentHashes.remove(source);
+        String contentHash = loadedHash != null ? loadedHash : hash(source);
+        OutputWriter.replace(entry, stream -> {
+            try (ObjectOutputStream out = new ObjectOutputStream(stream)) {
+                out.writeUTF(contentHash);
+                out.writeObject(new ArrayList<>(declarations));
+            }
+        });
+    }
+
+    /**
+     * Deletes the entries of all source files but the given ones, e.g. of deleted or moved files.
+     */
+    public void retain(Collection<Path> sources) throws IOException {
+        Set<Path> entries = new HashSet<>();
+        for (Path source : sources) {
+            entries.add(getEntry(source));
+        }
+        int deleted = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.bin")) {
+            for (Path entry : stream) {
+                if (!entries.contains(entry) && Files.deleteIfExists(entry)) {
+                    deleted++;
+                }
+            }
+        }
+        if (deleted > 0) {
+            logger.info(String.format("Deleted %d cache entries of source files that are gone", deleted));
+        }
+    }
+
+    private Path getEntry(Path source) {
+        MessageDigest digest = newDigest();
+        digest.update(FORMAT_VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(source.toString().getBytes(StandardCharsets.UTF_8));
+        return dir.resolve(toHex(digest.digest()) + ".bin");
+    }
+
+    private static String hash(Path source) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(source)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
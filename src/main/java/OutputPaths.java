@@ -0,0 +1,58 @@
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * TypeScript file and import statement of every translated type, computed once per declaration from -sr, -tr and -fr.
+ */
+public class OutputPaths {
+    private static final Pattern EXTENSION = Pattern.compile("[.][^.]+$");
+    private static final Pattern UPPER_CASE = Pattern.compile("([A-Z]+)");
+
+    private final Path targetRoot;
+    private final Pattern sourceRoot;
+    private final Path frontendRoot;
+    private final Map<TypeDeclaration, String> paths = new ConcurrentHashMap<>();
+    private final Map<TypeDeclaration, String> imports = new ConcurrentHashMap<>();
+
+    public OutputPaths(Map<String, String> params) {
+        this.targetRoot = params.containsKey("-tr") ? Paths.get(params.get("-tr")) : null;
+        // -sr has always been matched as a regular expression against the source directories
+        this.sourceRoot = params.containsKey("-sr") ? Pattern.compile(params.get("-sr")) : null;
+        this.frontendRoot = params.containsKey("-fr") ? Paths.get(params.get("-fr")) : null;
+    }
+
+    /**
+     * @return file the type is written to, or null if there is no -tr
+     */
+    public String getPath(TypeDeclaration type) {
+        if (targetRoot == null) {
+            return null;
+        }
+        return paths.computeIfAbsent(type, this::computePath);
+    }
+
+    /**
+     * @return statement importing the type from the file it is written to, relatively to -fr
+     */
+    public String getImport(TypeDeclaration type) {
+        return imports.computeIfAbsent(type, this::computeImport);
+    }
+
+    private String computePath(TypeDeclaration type) {
+        File file = new File(type.sourceFile);
+        String fname = UPPER_CASE.matcher(EXTENSION.matcher(file.getName()).replaceFirst("")).replaceAll("-$1").toLowerCase();
+        if (fname.startsWith("-")) {
+            fname = fname.substring(1);
+        }
+        return targetRoot.resolve(sourceRoot.split(file.getParent())[1]).resolve(fname + ".ts").toString();
+    }
+
+    private String computeImport(TypeDeclaration type) {
+        String tsRelativeToRoot = frontendRoot.relativize(Paths.get(getPath(type))).toString().split("\\.ts")[0];
+        return String.format("import { %s } from '@%s';", type.simpleName, tsRelativeToRoot);
+    }
+}
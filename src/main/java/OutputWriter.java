@@ -0,0 +1,217 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.log4j.Logger;
+
+/**
+ * Writes generated files only when their content changed, comparing content hashes, and replaces them atomically so
+ * that nobody ever sees a half written file.
+ * <p>
+ * With a manifest the hashes of the written files are remembered between runs, so existing files don't have to be read
+ * to find out that they are up to date.
+ */
+public class OutputWriter {
+    private static final Logger logger = Logger.getLogger(OutputWriter.class);
+
+    private final Path manifest;
+    // path -> "<hash> <size>" of the file content as last written
+    private final Map<String, String> hashes = new TreeMap<>();
+    private boolean manifestChanged;
+    private final Metrics metrics;
+
+    public OutputWriter(Path manifest) throws IOException {
+        this(manifest, new Metrics());
+    }
+
+    public OutputWriter(Path manifest, Metrics metrics) throws IOException {
+        this.manifest = manifest;
+        this.metrics = metrics;
+        if (manifest != null && Files.exists(manifest)) {
+            try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.split(" ", 3);
+                    if (parts.length == 3) {
+                        hashes.put(parts[2], parts[0] + " " + parts[1]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return writer using the manifest given by the -m parameter, if any
+     */
+    public static OutputWriter open(Map<String, String> params, Metrics metrics) throws IOException {
+        return new OutputWriter(params.containsKey("-m") ? Paths.get(params.get("-m")) : null, metrics);
+    }
+
+    /**
+     * @return true if the file was written, false if it already had this content
+     */
+    public boolean write(Path path, CharSequence content) throws IOException {
+        ByteBuffer bytes = Charset.defaultCharset().encode(CharBuffer.wrap(content));
+        String key = path.toString();
+        String hash = hash(bytes.duplicate()) + " " + bytes.remaining();
+        String known = hashes.get(key);
+        if (known == null && Files.isRegularFile(path)) {
+            known = hash(path) + " " + Files.size(path);
+            metrics.increment(Metrics.FILES_READ);
+        }
+        if (hash.equals(known) && Files.isRegularFile(path) && Files.size(path) == bytes.remaining()) {
+            logger.debug(String.format("%s is up to date", path));
+            metrics.increment(Metrics.FILES_SKIPPED);
+            remember(key, hash);
+            return false;
+        }
+
+        logger.info(String.format("Writing %s", path));
+        replace(path, out -> out.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining()));
+        remember(key, hash);
+        metrics.increment(Metrics.FILES_WRITTEN);
+        return true;
+    }
+
+    /**
+     * Deletes a file that is no longer generated and forgets it.
+     *
+     * @return true if the file was there
+     */
+    public boolean delete(Path path) throws IOException {
+        if (hashes.remove(path.toString()) != null) {
+            manifestChanged = true;
+        }
+        boolean res = Files.deleteIfExists(path);
+        if (res) {
+            logger.info(String.format("Deleting %s", path));
+        }
+        return res;
+    }
+
+    /**
+     * @return true if every file of the manifest is still there with the size it was written with
+     */
+    public boolean isManifestIntact() throws IOException {
+        for (Map.Entry<String, String> entry : hashes.entrySet()) {
+            Path path = Paths.get(entry.getKey());
+            String size = entry.getValue().substring(entry.getValue().indexOf(' ') + 1);
+            if (!Files.isRegularFile(path) || Files.size(path) != Long.parseLong(size)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stores the manifest, if there is one and anything changed since it was read.
+     */
+    public void saveManifest() throws IOException {
+        if (manifest == null || !manifestChanged) {
+            return;
+        }
+        replace(manifest, out -> {
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                for (Map.Entry<String, String> entry : hashes.entrySet()) {
+                    writer.write(entry.getValue() + " " + entry.getKey());
+                    writer.newLine();
+                }
+            }
+        });
+        manifestChanged = false;
+    }
+
+    interface Content {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Writes the content to a new file next to the path and moves it over the path. The new file is created like any
+     * other, with the permissions the umask allows, and takes the ones of the file it replaces.
+     */
+    static void replace(Path path, Content content) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp;
+        OutputStream out;
+        while (true) {
+            tmp = parent.resolve("." + path.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                out = Files.newOutputStream(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                break;
+            } catch (FileAlreadyExistsException e) {
+                // written by another thread, try another name
+            }
+        }
+        try {
+            try (OutputStream o = out) {
+                content.writeTo(o);
+            }
+            PosixFileAttributeView permissions = Files.getFileAttributeView(path, PosixFileAttributeView.class);
+            if (permissions != null && Files.exists(path)) {
+                Files.setPosixFilePermissions(tmp, permissions.readAttributes().permissions());
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void remember(String key, String hash) {
+        if (!hash.equals(hashes.put(key, hash))) {
+            manifestChanged = true;
+        }
+    }
+
+    private static String hash(ByteBuffer bytes) {
+        MessageDigest digest = newDigest();
+        digest.update(bytes);
+        return toHex(digest.digest());
+    }
+
+    private static String hash(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
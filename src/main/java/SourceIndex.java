@@ -0,0 +1,477 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Locates the source files declaring types, without parsing: the files are memory mapped and scanned byte by byte for
+ * their package, the types they declare, nested ones included, and the annotations of those types. The files reached
+ * from a translated class are scanned again for the type names they use, see {@link #findReferenced}.
+ * <p>
+ * The scan does not understand Java beyond comments, literals and braces, so it may find more than Spoon would. It is
+ * only used to pick the files to hand to Spoon.
+ */
+public class SourceIndex {
+    private final Map<String, Path> byQualifiedName = new LinkedHashMap<>();
+    // annotation as written on a type declaration -> files declaring such types
+    private final Map<String, Set<Path>> byAnnotation = new HashMap<>();
+    private final int fileCount;
+
+    public SourceIndex(List<Path> sources) throws IOException {
+        this(sources, 1, new Metrics());
+    }
+
+    public SourceIndex(List<Path> sources, int parallelism, Metrics metrics) throws IOException {
+        List<Scan> scans = parallelism <= 1 ? scanAll(sources) : scanAll(sources, parallelism, metrics);
+        for (int i = 0; i < sources.size(); i++) {
+            Path source = sources.get(i);
+            Scan scan = scans.get(i);
+            String prefix = scan.packageName.isEmpty() ? "" : scan.packageName + ".";
+            for (String type : scan.types) {
+                byQualifiedName.putIfAbsent(prefix + type, source);
+            }
+            // a public type is in the file of its name even if the scan missed it
+            byQualifiedName.putIfAbsent(prefix + source.getFileName().toString().replaceFirst("[.]java$", ""), source);
+            for (String annotation : scan.annotations) {
+                byAnnotation.computeIfAbsent(annotation, a -> new TreeSet<>()).add(source);
+            }
+        }
+        this.fileCount = sources.size();
+    }
+
+    public int size() {
+        return fileCount;
+    }
+
+    /**
+     * @return qualified names of all types found, nested ones with a $ before their name
+     */
+    public Collection<String> names() {
+        return byQualifiedName.keySet();
+    }
+
+    /**
+     * @return file declaring the given type or its outer type, or null if there is none under the source roots
+     */
+    public Path locate(String qualifiedName) {
+        Path res = byQualifiedName.get(qualifiedName);
+        int nested = qualifiedName.indexOf('$');
+        if (res == null && nested >= 0) {
+            res = byQualifiedName.get(qualifiedName.substring(0, nested));
+        }
+        return res;
+    }
+
+    /**
+     * @return files whose top level type qualified name contains the query (or its part before a nested type name)
+     */
+    public List<Path> find(String query) {
+        int nested = query.indexOf('$');
+        String topLevel = nested < 0 ? query : query.substring(0, nested);
+        Set<Path> res = new LinkedHashSet<>();
+        for (Map.Entry<String, Path> entry : byQualifiedName.entrySet()) {
+            if (entry.getKey().contains(topLevel)) {
+                res.add(entry.getValue());
+            }
+        }
+        return new ArrayList<>(res);
+    }
+
+    /**
+     * @return files declaring types with the annotation, qualified or simple. Imports are not looked at, so a
+     * qualified marker also matches annotations written with its simple name.
+     */
+    public Set<Path> findAnnotated(String marker) {
+        String simpleName = marker.substring(marker.lastIndexOf('.') + 1);
+        Set<Path> res = new TreeSet<>();
+        for (Map.Entry<String, Set<Path>> entry : byAnnotation.entrySet()) {
+            String annotation = entry.getKey();
+            if (annotation.equals(marker) || annotation.equals(simpleName)
+                    || (!marker.contains(".") && annotation.endsWith("." + simpleName))) {
+                res.addAll(entry.getValue());
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Follows the type names used outside of method bodies (fields, signatures, super types) from the given files,
+     * resolving them like the compiler would, through the package, the imports and qualified names.
+     *
+     * @return files found this way, the given ones excepted
+     */
+    public Set<Path> findReferenced(Collection<Path> files) throws IOException {
+        Set<Path> seen = new HashSet<>(files);
+        Deque<Path> queue = new ArrayDeque<>(files);
+        Set<Path> res = new TreeSet<>();
+        while (!queue.isEmpty()) {
+            Scan scan = scanReferences(queue.poll());
+            for (String name : scan.references) {
+                Path file = resolve(scan, name);
+                if (file != null && seen.add(file)) {
+                    res.add(file);
+                    queue.add(file);
+                }
+            }
+        }
+        return res;
+    }
+
+    private Path resolve(Scan scan, String name) {
+        int dot = name.indexOf('.');
+        String first = dot < 0 ? name : name.substring(0, dot);
+        // Outer.Inner is looked up as Outer$Inner, locate then gives the file of Outer
+        String nested = dot < 0 ? "" : "$" + name.substring(dot + 1).replace('.', '$');
+        for (String imported : scan.imports) {
+            if (imported.endsWith("." + first)) {
+                return locate(imported + nested);
+            }
+        }
+        Path res = locate(scan.packageName.isEmpty() ? first + nested : scan.packageName + "." + first + nested);
+        for (int i = 0; res == null && i < scan.imports.size(); i++) {
+            String imported = scan.imports.get(i);
+            if (imported.endsWith(".*")) {
+                res = locate(imported.substring(0, imported.length() - 1) + first + nested);
+            }
+        }
+        // a qualified name, or a package followed by nested types
+        for (int end = name.length(); res == null && end > 0; end = name.lastIndexOf('.', end - 1)) {
+            res = locate(name.substring(0, end) + name.substring(end).replace('.', '$'));
+        }
+        return res;
+    }
+
+    private static List<Scan> scanAll(List<Path> sources) throws IOException {
+        List<Scan> res = new ArrayList<>();
+        for (Path source : sources) {
+            res.add(scan(source));
+        }
+        return res;
+    }
+
+    private static List<Scan> scanAll(List<Path> sources, int parallelism, Metrics metrics) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<Scan>> futures = new ArrayList<>();
+            for (Path source : sources) {
+                futures.add(executor.submit(metrics.track(() -> scan(source))));
+            }
+            List<Scan> res = new ArrayList<>();
+            for (Future<Scan> future : futures) {
+                res.add(future.get());
+            }
+            return res;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static Scan scan(Path source) throws IOException {
+        return scan(source, false);
+    }
+
+    static Scan scanReferences(Path source) throws IOException {
+        return scan(source, true);
+    }
+
+    private static Scan scan(Path source, boolean withReferences) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            return new Scan(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), withReferences);
+        }
+    }
+
+    /**
+     * Package, types and type annotations of a source file, and if asked for, its imports and the type names it uses.
+     */
+    static class Scan {
+        String packageName = "";
+        // names relative to the package, nested ones after their outer type and a $
+        final List<String> types = new ArrayList<>();
+        final Set<String> annotations = new LinkedHashSet<>();
+        // single type and on demand (ending with .*) imports, static ones excepted
+        final List<String> imports = new ArrayList<>();
+        // names as written, outside of method bodies, that have a part starting with an upper case letter
+        final Set<String> references = new LinkedHashSet<>();
+
+        private final ByteBuffer bytes;
+        private final int length;
+        private final boolean withReferences;
+        private int pos;
+
+        private Scan(ByteBuffer bytes, boolean withReferences) {
+            this.bytes = bytes;
+            this.length = bytes.limit();
+            this.withReferences = withReferences;
+            scan();
+        }
+
+        private void scan() {
+            int depth = 0;
+            // declared types whose body is open, with the brace depth of the body
+            Deque<String> openTypes = new ArrayDeque<>();
+            Deque<Integer> openDepths = new ArrayDeque<>();
+            String declared = null;
+            List<String> pendingAnnotations = new ArrayList<>();
+            boolean packageSeen = false;
+            byte previous = 0;
+            while (pos < length) {
+                byte b = bytes.get(pos);
+                if (skipTrivia()) {
+                    continue;
+                }
+                if (b == '@') {
+                    pos++;
+                    skipWhitespace();
+                    String name = readQualifiedName();
+                    if (!"interface".equals(name)) {
+                        skipWhitespace();
+                        if (pos < length && bytes.get(pos) == '(') {
+                            skipParentheses();
+                        }
+                        if (!name.isEmpty()) {
+                            pendingAnnotations.add(name);
+                        }
+                        continue;
+                    }
+                    previous = 'a';
+                    declared = declareType(depth, openTypes, openDepths, pendingAnnotations);
+                    continue;
+                }
+                if (isIdentifierStart(b)) {
+                    String word = readIdentifier();
+                    if (previous == '.') {
+                        // Foo.class, a.enum.b
+                        previous = 'a';
+                        continue;
+                    }
+                    previous = 'a';
+                    if (!packageSeen && depth == 0 && "package".equals(word)) {
+                        skipWhitespace();
+                        packageName = readQualifiedName();
+                        packageSeen = true;
+                    } else if (depth == 0 && "import".equals(word)) {
+                        if (withReferences) {
+                            readImport();
+                        }
+                        while (pos < length && bytes.get(pos) != ';') {
+                            pos++;
+                        }
+                    } else if ("class".equals(word) || "interface".equals(word) || "enum".equals(word)) {
+                        declared = declareType(depth, openTypes, openDepths, pendingAnnotations);
+                    } else if (withReferences && (depth == 0 || (!openDepths.isEmpty() && openDepths.peek() == depth))) {
+                        addReference(word);
+                    }
+                    continue;
+                }
+                pos++;
+                previous = b;
+                if (b == '{') {
+                    depth++;
+                    if (declared != null) {
+                        openTypes.push(declared);
+                        openDepths.push(depth);
+                        declared = null;
+                    }
+                    pendingAnnotations.clear();
+                } else if (b == '}') {
+                    if (!openDepths.isEmpty() && openDepths.peek() == depth) {
+                        openTypes.pop();
+                        openDepths.pop();
+                    }
+                    depth = Math.max(depth - 1, 0);
+                    pendingAnnotations.clear();
+                } else if (b == ';' || b == '(' || b == '=') {
+                    pendingAnnotations.clear();
+                }
+            }
+        }
+
+        /**
+         * Reads the name following a class, interface or enum keyword, if the keyword is where types are declared.
+         *
+         * @return the declared name, or null if it is not a type declaration
+         */
+        private String declareType(int depth, Deque<String> openTypes, Deque<Integer> openDepths, List<String> pendingAnnotations) {
+            skipWhitespaceAndComments();
+            String name = pos < length && isIdentifierStart(bytes.get(pos)) ? readIdentifier() : "";
+            boolean inTypeBody = depth == 0 || (!openDepths.isEmpty() && openDepths.peek() == depth);
+            if (name.isEmpty() || !inTypeBody) {
+                pendingAnnotations.clear();
+                return null;
+            }
+            String res = openTypes.isEmpty() ? name : openTypes.peek() + "$" + name;
+            types.add(res);
+            annotations.addAll(pendingAnnotations);
+            pendingAnnotations.clear();
+            return res;
+        }
+
+        private void readImport() {
+            skipWhitespaceAndComments();
+            String name = readQualifiedName();
+            if ("static".equals(name)) {
+                return;
+            }
+            if (name.endsWith(".") && pos < length && bytes.get(pos) == '*') {
+                name += "*";
+            }
+            imports.add(name);
+        }
+
+        // reads the rest of a qualified name starting with the word, Foo.class being the only one taken in part
+        private void addReference(String word) {
+            StringBuilder name = new StringBuilder(word);
+            while (pos + 1 < length && bytes.get(pos) == '.' && isIdentifierStart(bytes.get(pos + 1))) {
+                pos++;
+                String part = readIdentifier();
+                if ("class".equals(part)) {
+                    break;
+                }
+                name.append('.').append(part);
+            }
+            for (String part : name.toString().split("[.]")) {
+                if (Character.isUpperCase(part.charAt(0))) {
+                    references.add(name.toString());
+                    return;
+                }
+            }
+        }
+
+        // skips whitespace, comments and literals, returning true if anything was skipped
+        private boolean skipTrivia() {
+            byte b = bytes.get(pos);
+            if (b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f') {
+                pos++;
+                return true;
+            }
+            if (b == '/' && pos + 1 < length && bytes.get(pos + 1) == '/') {
+                while (pos < length && bytes.get(pos) != '\n') {
+                    pos++;
+                }
+                return true;
+            }
+            if (b == '/' && pos + 1 < length && bytes.get(pos + 1) == '*') {
+                pos += 2;
+                while (pos < length && !(bytes.get(pos) == '*' && pos + 1 < length && bytes.get(pos + 1) == '/')) {
+                    pos++;
+                }
+                pos = Math.min(pos + 2, length);
+                return true;
+            }
+            if (b == '"' || b == '\'') {
+                skipLiteral(b);
+                return true;
+            }
+            return false;
+        }
+
+        private void skipLiteral(byte quote) {
+            if (quote == '"' && pos + 2 < length && bytes.get(pos + 1) == '"' && bytes.get(pos + 2) == '"') {
+                pos += 3;
+                while (pos < length && !(bytes.get(pos) == '"' && pos + 2 < length && bytes.get(pos + 1) == '"' && bytes.get(pos + 2) == '"')) {
+                    pos += bytes.get(pos) == '\\' ? 2 : 1;
+                }
+                pos = Math.min(pos + 3, length);
+                return;
+            }
+            pos++;
+            while (pos < length) {
+                byte b = bytes.get(pos);
+                if (b == '\\') {
+                    pos += 2;
+                    continue;
+                }
+                pos++;
+                if (b == quote || b == '\n') {
+                    return;
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < length && Character.isWhitespace(bytes.get(pos))) {
+                pos++;
+            }
+        }
+
+        private void skipWhitespaceAndComments() {
+            while (pos < length && bytes.get(pos) != '"' && bytes.get(pos) != '\'' && skipTrivia()) {
+                // skipped
+            }
+        }
+
+        private void skipParentheses() {
+            int open = 0;
+            while (pos < length) {
+                if (skipTrivia()) {
+                    continue;
+                }
+                byte b = bytes.get(pos++);
+                if (b == '(') {
+                    open++;
+                } else if (b == ')' && --open == 0) {
+                    return;
+                }
+            }
+        }
+
+        private String readIdentifier() {
+            int start = pos;
+            while (pos < length && isIdentifierPart(bytes.get(pos))) {
+                pos++;
+            }
+            return decode(start, pos);
+        }
+
+        private String readQualifiedName() {
+            int start = pos;
+            while (pos < length && (isIdentifierPart(bytes.get(pos)) || bytes.get(pos) == '.')) {
+                pos++;
+            }
+            return decode(start, pos);
+        }
+
+        private String decode(int start, int end) {
+            byte[] res = new byte[end - start];
+            for (int i = 0; i < res.length; i++) {
+                res[i] = bytes.get(start + i);
+            }
+            return new String(res, StandardCharsets.UTF_8);
+        }
+
+        // bytes of multi byte UTF-8 characters are negative, they are taken as letters
+        private static boolean isIdentifierStart(byte b) {
+            return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || b == '_' || b == '$' || b < 0;
+        }
+
+        private static boolean isIdentifierPart(byte b) {
+            return isIdentifierStart(b) || (b >= '0' && b <= '9');
+        }
+    }
+}
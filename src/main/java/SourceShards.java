@@ -0,0 +1,42 @@
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits source files into shards parsed by separate models: one per source root, large roots being cut into
+ * consecutive runs of files, so that a package mostly stays in the same shard.
+ */
+public class SourceShards {
+    private SourceShards() {
+    }
+
+    /**
+     * @param files  sources sorted by path
+     * @param roots  source roots, the files outside of them making a shard of their own
+     * @param shards number of threads the shards are parsed on, roots with more files than a thread's share are cut
+     */
+    public static List<List<Path>> split(List<Path> files, List<Path> roots, int shards) {
+        Map<Path, List<Path>> byRoot = new LinkedHashMap<>();
+        for (Path file : files) {
+            Path root = null;
+            for (Path candidate : roots) {
+                if (file.startsWith(candidate) && (root == null || candidate.getNameCount() > root.getNameCount())) {
+                    root = candidate;
+                }
+            }
+            byRoot.computeIfAbsent(root, r -> new ArrayList<>()).add(file);
+        }
+        int maxSize = Math.max(1, (files.size() + shards - 1) / shards);
+        List<List<Path>> res = new ArrayList<>();
+        for (List<Path> rootFiles : byRoot.values()) {
+            int parts = (rootFiles.size() + maxSize - 1) / maxSize;
+            for (int i = 0; i < parts; i++) {
+                // equal parts rather than full ones and a small rest
+                res.add(new ArrayList<>(rootFiles.subList(i * rootFiles.size() / parts, (i + 1) * rootFiles.size() / parts)));
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,149 @@
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.apache.log4j.Logger;
+
+/**
+ * Watches the {@code -p} source roots and keeps the translation of the {@code -i} class up to date: changed files are
+ * parsed again and only the types affected by them are translated and written again.
+ */
+public class SourceWatcher implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(SourceWatcher.class);
+    // editors usually save a file in several steps, events arriving within this delay are handled together
+    private static final long DEBOUNCE_MILLIS = 200;
+
+    private final JavaToTStransformer transformer;
+    private final Map<String, String> params;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private final Map<Path, List<String>> typesByFile = new HashMap<>();
+
+    public SourceWatcher(JavaToTStransformer transformer, Map<String, String> params) throws IOException {
+        this.transformer = transformer;
+        this.params = params;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        for (TypeDeclaration declaration : transformer.getDeclarations().values()) {
+            if (declaration.sourceFile != null) {
+                typesByFile.computeIfAbsent(Paths.get(declaration.sourceFile), f -> new ArrayList<>()).add(declaration.qualifiedName);
+            }
+        }
+        for (String root : params.get("-p").split(":")) {
+            Path path = Paths.get(root).toFile().getCanonicalFile().toPath();
+            register(Files.isDirectory(path) ? path : path.getParent());
+        }
+    }
+
+    private void register(Path root) throws IOException {
+        try (Stream<Path> dirs = Files.walk(root)) {
+            for (Path dir : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+                WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                directories.put(key, dir);
+            }
+        }
+    }
+
+    /**
+     * Blocks, handling changes until the watcher is closed.
+     */
+    public void watch() throws IOException, InterruptedException {
+        logger.info(String.format("Watching %d directories for changes", directories.size()));
+        try {
+            while (true) {
+                Set<Path> changed = new TreeSet<>();
+                WatchKey key = watchService.take();
+                while (key != null) {
+                    collect(key, changed);
+                    key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (!changed.isEmpty()) {
+                    update(changed);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            logger.info("Stopped watching");
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) throws IOException {
+        Path dir = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                register(path);
+                changed.addAll(JavaToTStransformer.listSources(path.toString()));
+            } else if (path.toString().endsWith(".java")) {
+                changed.add(path);
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+    }
+
+    void update(Set<Path> changed) throws IOException {
+        List<Path> existing = new ArrayList<>();
+        for (Path path : changed) {
+            if (Files.isRegularFile(path)) {
+                existing.add(path.toFile().getCanonicalFile().toPath());
+            }
+        }
+        DeclarationTable declarations = transformer.getDeclarations();
+        Set<String> changedTypes = new HashSet<>();
+        for (Path path : changed) {
+            for (String name : typesByFile.getOrDefault(path, new ArrayList<>())) {
+                declarations.remove(name);
+                changedTypes.add(name);
+            }
+            typesByFile.remove(path);
+        }
+        List<TypeDeclaration> loaded = new ArrayList<>();
+        for (Map.Entry<Path, List<TypeDeclaration>> entry : transformer.loadSources(existing).entrySet()) {
+            List<String> names = new ArrayList<>();
+            for (TypeDeclaration declaration : entry.getValue()) {
+                declarations.add(declaration);
+                names.add(declaration.qualifiedName);
+            }
+            loaded.addAll(entry.getValue());
+            typesByFile.put(entry.getKey(), names);
+            changedTypes.addAll(names);
+        }
+        // with --lazy, the changed types may reference files that were not loaded yet
+        for (TypeDeclaration declaration : transformer.loadReachable(loaded)) {
+            if (declaration.sourceFile != null) {
+                typesByFile.computeIfAbsent(Paths.get(declaration.sourceFile), f -> new ArrayList<>()).add(declaration.qualifiedName);
+            }
+        }
+
+        Set<String> paths = transformer.reparse(changedTypes);
+        if (params.containsKey("-tr")) {
+            transformer.rewriteFiles(paths);
+        } else {
+            System.out.println("\n\n---------------------------------------------------------------------------\n" + transformer.toString());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
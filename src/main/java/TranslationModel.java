@@ -0,0 +1,80 @@
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read only model of the java types, built once and shared by any number of threads. Every translation gets its own
+ * {@link JavaToTStransformer} from {@link #newTranslation()}, holding the visited types of that translation only, while
+ * the declarations, the mapped types and the output paths are shared:
+ * <pre>{@code
+ * TranslationModel model = TranslationModel.build(params);
+ * // on any thread
+ * JavaToTStransformer translation = model.newTranslation();
+ * translation.parseType(model.get("com.acme.api.OrderDto"));
+ * String typescript = translation.toString();
+ * }</pre>
+ */
+public final class TranslationModel {
+    private final Map<String, String> params;
+    private final DeclarationTable declarations;
+    private final TypeMapper typeMapper;
+    private final OutputPaths outputPaths;
+
+    private TranslationModel(Map<String, String> params, Collection<TypeDeclaration> types) {
+        this.params = Collections.unmodifiableMap(new HashMap<>(params));
+        this.declarations = new DeclarationTable();
+        this.declarations.addAll(types);
+        this.declarations.freeze();
+        this.typeMapper = JavaToTStransformer.createTypeMapper(this.params, declarations);
+        this.outputPaths = new OutputPaths(this.params);
+    }
+
+    /**
+     * Builds the model of the sources of -p and the classes of -cp. The other parameters, e.g. -tr or -tm, are the ones
+     * of every translation of the model.
+     */
+    public static TranslationModel build(Map<String, String> params) throws IOException {
+        if (params.containsKey("--lazy")) {
+            throw new IllegalArgumentException("A shared model is built at once and can not be combined with --lazy");
+        }
+        JavaToTStransformer builder = new JavaToTStransformer(params);
+        builder.buildLauncher();
+        return new TranslationModel(params, builder.getDeclarations().values());
+    }
+
+    /**
+     * @return a model of a copy of the declarations, which can still be changed by their owner
+     */
+    public static TranslationModel of(Map<String, String> params, DeclarationTable declarations) {
+        return new TranslationModel(params, declarations.values());
+    }
+
+    public TypeDeclaration get(String qualifiedName) {
+        return declarations.get(qualifiedName);
+    }
+
+    public Collection<TypeDeclaration> getDeclarations() {
+        return Collections.unmodifiableCollection(declarations.values());
+    }
+
+    /**
+     * @return types whose qualified name contains the query
+     */
+    public List<TypeDeclaration> find(String query) {
+        return declarations.getIndex().findContaining(query);
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    /**
+     * @return a new translation context, to be used by a single thread
+     */
+    public JavaToTStransformer newTranslation() {
+        return new JavaToTStransformer(new HashMap<>(params), declarations, typeMapper, outputPaths);
+    }
+}
@@ -0,0 +1,123 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.apache.log4j.Logger;
+
+/**
+ * Serves translations of an already built model over localhost HTTP:
+ * <p>
+ * {@code GET /translate?i=<class qualified name or any part of it>[&write=true]}
+ * <p>
+ * Every request gets its own translation of the shared {@link TranslationModel}, so concurrent requests never see
+ * each other's visited types. With {@code write=true} files are written like in the command line
+ * mode, using the {@code -tr}, {@code -sr} and {@code -fr} parameters the server was started with.
+ */
+public class TranslationServer {
+    private static final Logger logger = Logger.getLogger(TranslationServer.class);
+    private static final int DEFAULT_PORT = 8090;
+
+    private final Map<String, String> params;
+    private final TranslationModel model;
+    private final Object writeLock = new Object();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public TranslationServer(Map<String, String> params, DeclarationTable declarations) {
+        this(params, TranslationModel.of(params, declarations));
+    }
+
+    public TranslationServer(Map<String, String> params, TranslationModel model) {
+        this.params = params;
+        this.model = model;
+    }
+
+    public void start() throws IOException {
+        int port = params.get("-serve") == null ? DEFAULT_PORT : Integer.parseInt(params.get("-serve"));
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/translate", this::handleTranslate);
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        server.setExecutor(executor);
+        server.start();
+        logger.info(String.format("Listening on http://%s:%d/translate", server.getAddress().getHostString(), getPort()));
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handleTranslate(HttpExchange exchange) throws IOException {
+        try {
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String name = query.get("i");
+            if (name == null || name.isEmpty()) {
+                respond(exchange, 400, "Missing required query parameter (i) with the class to translate");
+                return;
+            }
+            JavaToTStransformer transformer = model.newTranslation();
+
+            List<TypeDeclaration> candidates = transformer.findCandidates(name);
+            if (candidates.isEmpty()) {
+                respond(exchange, 404, transformer.getNothingFoundMessage(name));
+                return;
+            }
+            TypeDeclaration type = candidates.stream().filter(c -> c.qualifiedName.equals(name)).findFirst()
+                    .orElse(candidates.size() == 1 ? candidates.get(0) : null);
+            if (type == null) {
+                // the name has to be made more precise, the candidates are listed to pick from
+                respond(exchange, 409, String.format("Several classes match %s:\n%s", name,
+                        candidates.stream().map(c -> c.qualifiedName).collect(Collectors.joining("\n"))));
+                return;
+            }
+
+            transformer.parseType(type);
+            if (Boolean.parseBoolean(query.get("write")) && model.getParams().containsKey("-tr")) {
+                synchronized (writeLock) {
+                    JavaToTStransformer.writeFiles(transformer, model.getParams());
+                }
+            }
+            respond(exchange, 200, transformer.toString());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to translate " + exchange.getRequestURI(), e);
+            respond(exchange, 500, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
+        Map<String, String> res = new HashMap<>();
+        if (query == null) {
+            return res;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), "UTF-8");
+            res.put(key, eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+        }
+        return res;
+    }
+}
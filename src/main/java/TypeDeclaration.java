@@ -0,0 +1,149 @@
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Spoon-independent metadata of a single java type: everything the translation needs, so that it can be cached on disk
+ * and the Spoon model released before translating.
+ */
+public class TypeDeclaration implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Kind {CLASS, ENUM, OTHER}
+
+    final Kind kind;
+    final String qualifiedName;
+    final String simpleName;
+    final String packageName;
+    final String sourceFile;
+    final List<String> imports;
+    // qualified names of the annotations of the type, as far as they are known
+    final List<String> annotations = new ArrayList<>();
+    TypeRef superClass;
+    final List<FieldDeclaration> fields = new ArrayList<>();
+    final List<EnumValueDeclaration> enumValues = new ArrayList<>();
+
+    public TypeDeclaration(Kind kind, String qualifiedName, String simpleName, String packageName, String sourceFile, List<String> imports) {
+        this.kind = kind;
+        this.qualifiedName = qualifiedName;
+        this.simpleName = simpleName;
+        this.packageName = packageName.intern();
+        this.sourceFile = sourceFile == null ? null : sourceFile.intern();
+        this.imports = imports;
+    }
+
+    @Override
+    public String toString() {
+        return qualifiedName;
+    }
+
+    /**
+     * Immutable and interned: the same reference used by many fields, e.g. {@code List<String>}, is a single instance.
+     * The interning is weak, references no declaration uses anymore are collected, e.g. in {@code --watch} and
+     * {@code -serve} modes.
+     */
+    public static final class TypeRef implements Serializable {
+        private static final long serialVersionUID = 1L;
+        // the value must not hold the key strongly, or it would never be collected
+        private static final Map<TypeRef, WeakReference<TypeRef>> INTERNED = new WeakHashMap<>();
+
+        final String qualifiedName;
+        final String simpleName;
+        final TypeRef componentType;
+        final List<TypeRef> typeArguments;
+        final boolean typeParameter;
+        // references are hash keys of the interning and type mapping tables, computed on first use
+        private transient int hash;
+
+        private TypeRef(String qualifiedName, String simpleName, TypeRef componentType, List<TypeRef> typeArguments, boolean typeParameter) {
+            this.qualifiedName = qualifiedName.intern();
+            this.simpleName = simpleName.intern();
+            this.componentType = componentType;
+            this.typeArguments = typeArguments == null || typeArguments.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(typeArguments));
+            this.typeParameter = typeParameter;
+        }
+
+        public static TypeRef of(String qualifiedName, String simpleName, TypeRef componentType, List<TypeRef> typeArguments, boolean typeParameter) {
+            TypeRef ref = new TypeRef(qualifiedName, simpleName, componentType, typeArguments, typeParameter);
+            synchronized (INTERNED) {
+                WeakReference<TypeRef> interned = INTERNED.get(ref);
+                TypeRef res = interned == null ? null : interned.get();
+                if (res == null) {
+                    INTERNED.put(ref, new WeakReference<>(ref));
+                    res = ref;
+                }
+                return res;
+            }
+        }
+
+        /**
+         * @return number of interned references, including the ones not collected yet
+         */
+        static int internedCount() {
+            synchronized (INTERNED) {
+                return INTERNED.size();
+            }
+        }
+
+        private Object readResolve() {
+            return of(qualifiedName, simpleName, componentType, typeArguments, typeParameter);
+        }
+
+        boolean isArray() {
+            return componentType != null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            TypeRef that = (TypeRef) o;
+            return typeParameter == that.typeParameter && qualifiedName.equals(that.qualifiedName) && simpleName.equals(that.simpleName)
+                    && Objects.equals(componentType, that.componentType) && typeArguments.equals(that.typeArguments);
+        }
+
+        @Override
+        public int hashCode() {
+            int res = hash;
+            if (res == 0) {
+                res = Objects.hash(qualifiedName, simpleName, componentType, typeArguments, typeParameter);
+                hash = res;
+            }
+            return res;
+        }
+
+        @Override
+        public String toString() {
+            return qualifiedName;
+        }
+    }
+
+    public static class FieldDeclaration implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final String name;
+        final TypeRef type;
+
+        public FieldDeclaration(String name, TypeRef type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+
+    public static class EnumValueDeclaration implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final String name;
+        final String value;
+
+        public EnumValueDeclaration(String name, String value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+}
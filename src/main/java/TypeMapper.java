@@ -0,0 +1,151 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps java type references to TypeScript types and to the declarations they contain. Type references are interned,
+ * so the same {@code List<Foo>} is mapped once and then read from the caches.
+ */
+public class TypeMapper {
+    private static final Map<String, String> JAVA_TS_TYPE_MATCHING = new HashMap<>();
+
+    static {
+        JAVA_TS_TYPE_MATCHING.put("java.lang.String", "string");
+        JAVA_TS_TYPE_MATCHING.put("java.lang.Character", "string");
+        JAVA_TS_TYPE_MATCHING.put("char", "string");
+        JAVA_TS_TYPE_MATCHING.put("byte", "number");
+        JAVA_TS_TYPE_MATCHING.put("java.lang.Byte", "number");
+        JAVA_TS_TYPE_MATCHING.put("int", "number");
+        JAVA_TS_TYPE_MATCHING.put("java.lang.Integer", "number");
+        JAVA_TS_TYPE_MATCHING.put("float", "number");
+        JAVA_TS_TYPE_MATCHING.put("java.lang.Float", "number");
+        JAVA_TS_TYPE_MATCHING.put("double", "number");
+        JAVA_TS_TYPE_MATCHING.put("java.lang.Double", "number");
+        JAVA_TS_TYPE_MATCHING.put("long", "number");
+        JAVA_TS_TYPE_MATCHING.put("java.lang.Long", "number");
+        JAVA_TS_TYPE_MATCHING.put("boolean", "boolean");
+        JAVA_TS_TYPE_MATCHING.put("java.lang.Boolean", "boolean");
+        JAVA_TS_TYPE_MATCHING.put("com.google.gson.JsonObject", "Dict<string>");
+        JAVA_TS_TYPE_MATCHING.put("com.google.gson.JsonArray", "any[]");
+    }
+
+    private final DeclarationTable declarations;
+    // built in mappings overridden by the configured ones, by qualified name
+    private final Map<String, String> mappings;
+    private final Map<TypeDeclaration.TypeRef, String> tsTypes = new ConcurrentHashMap<>();
+    // referencing type -> reference -> declarations of the reference and of its type arguments
+    private final Map<TypeDeclaration, Map<TypeDeclaration.TypeRef, Set<TypeDeclaration>>> actualTypes = new ConcurrentHashMap<>();
+    private int declarationsVersion;
+
+    public TypeMapper(DeclarationTable declarations) {
+        this(declarations, Collections.emptyMap());
+    }
+
+    public TypeMapper(DeclarationTable declarations, Map<String, String> extraMappings) {
+        this.declarations = declarations;
+        this.mappings = new HashMap<>(JAVA_TS_TYPE_MATCHING);
+        this.mappings.putAll(extraMappings);
+        this.declarationsVersion = declarations.getVersion();
+    }
+
+    /**
+     * Reads extra mappings from a properties file of java qualified names to TypeScript types, e.g.
+     * {@code java.time.Instant=string}.
+     */
+    public static Map<String, String> readMappings(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        Map<String, String> res = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            res.put(name, properties.getProperty(name).trim());
+        }
+        return res;
+    }
+
+    public String getType(TypeDeclaration.TypeRef type) {
+        checkVersion();
+        String res = tsTypes.get(type);
+        if (res == null) {
+            res = mapType(type);
+            tsTypes.put(type, res);
+        }
+        return res;
+    }
+
+    private String mapType(TypeDeclaration.TypeRef type) {
+        if (type.isArray()) {
+            return getType(type.componentType) + "[]";
+        }
+        String mapped = mappings.get(type.qualifiedName);
+        if (mapped != null) {
+            return mapped;
+        }
+        switch (type.qualifiedName) {
+            case "java.util.Set":
+                return "Set<" + getType(type.typeArguments.get(0)) + ">";
+            case "java.util.List":
+            case "java.util.Collection":
+                return getType(type.typeArguments.get(0)) + "[]";
+            case "java.util.Map":
+                return "Map<" + getType(type.typeArguments.get(0)) + ", " + getType(type.typeArguments.get(1)) + ">";
+            default:
+                return type.simpleName;
+        }
+    }
+
+    /**
+     * Empties the caches once the table has changed: references may resolve to other declarations, and the ones of
+     * replaced declarations must not be kept from being collected.
+     */
+    private void checkVersion() {
+        int version = declarations.getVersion();
+        if (version != declarationsVersion) {
+            synchronized (this) {
+                if (version != declarationsVersion) {
+                    actualTypes.clear();
+                    tsTypes.clear();
+                    declarationsVersion = version;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return declarations of the type arguments of the reference, or of the reference itself if it has none
+     */
+    public Set<TypeDeclaration> getActualTypes(TypeDeclaration from, TypeDeclaration.TypeRef type) {
+        checkVersion();
+        Map<TypeDeclaration.TypeRef, Set<TypeDeclaration>> byRef = actualTypes.computeIfAbsent(from, f -> new ConcurrentHashMap<>());
+        Set<TypeDeclaration> res = byRef.get(type);
+        if (res == null) {
+            Set<TypeDeclaration> collected = new LinkedHashSet<>();
+            collectActualTypes(from, type, collected);
+            res = collected.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(collected);
+            byRef.put(type, res);
+        }
+        return res;
+    }
+
+    private void collectActualTypes(TypeDeclaration from, TypeDeclaration.TypeRef type, Set<TypeDeclaration> res) {
+        if (!type.typeArguments.isEmpty()) {
+            for (TypeDeclaration.TypeRef typeArgument : type.typeArguments) {
+                collectActualTypes(from, typeArgument, res);
+            }
+        } else {
+            TypeDeclaration declaration = declarations.resolve(from, type);
+            if (declaration != null) {
+                res.add(declaration);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes translated types straight to an {@link Appendable}, token by token.
+ */
+public class TypescriptEmitter {
+    private final String indentation;
+
+    public TypescriptEmitter(String indentation) {
+        this.indentation = indentation;
+    }
+
+    /**
+     * Emits the types of one file separated by blank lines, without whitespace after the last one.
+     */
+    public void emit(List<? extends JavaToTStransformer.TypescriptType> types, Appendable out) throws IOException {
+        for (int i = 0; i < types.size(); i++) {
+            if (i > 0) {
+                out.append("\n\n");
+            }
+            emit(types.get(i), out, i < types.size() - 1);
+        }
+    }
+
+    public void emit(JavaToTStransformer.TypescriptType type, Appendable out, boolean trailingNewLine) throws IOException {
+        if (type instanceof JavaToTStransformer.TypescriptClass) {
+            emitClass((JavaToTStransformer.TypescriptClass) type, out, trailingNewLine);
+        } else if (type instanceof JavaToTStransformer.TypescriptEnum) {
+            emitEnum((JavaToTStransformer.TypescriptEnum) type, out);
+        }
+    }
+
+    /**
+     * @return the type as it is emitted when followed by other types
+     */
+    public String render(JavaToTStransformer.TypescriptType type) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            emit(type, sb, true);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return sb.toString();
+    }
+
+    private void emitHeader(JavaToTStransformer.TypescriptType type, Appendable out) throws IOException {
+        if (type instanceof JavaToTStransformer.TypescriptClass) {
+            JavaToTStransformer.TypescriptClass cls = (JavaToTStransformer.TypescriptClass) type;
+            out.append("export interface ").append(cls.name);
+            if (cls.superClassName != null) {
+                out.append(" extends ").append(cls.superClassName);
+            }
+            out.append(" {");
+        } else if (type instanceof JavaToTStransformer.TypescriptEnum) {
+            out.append("export enum ").append(type.name).append(" { ");
+        }
+    }
+
+    private void emitClass(JavaToTStransformer.TypescriptClass cls, Appendable out, boolean trailingNewLine) throws IOException {
+        emitHeader(cls, out);
+        out.append('\n');
+        for (JavaToTStransformer.TypescriptField field : cls.fields) {
+            out.append(indentation).append(field.name).append(": ").append(field.clazz).append(";\n");
+        }
+        out.append('}');
+        if (trailingNewLine) {
+            out.append('\n');
+        }
+    }
+
+    private void emitEnum(JavaToTStransformer.TypescriptEnum tsEnum, Appendable out) throws IOException {
+        emitHeader(tsEnum, out);
+        out.append('\n');
+        for (int i = 0; i < tsEnum.fields.size(); i++) {
+            JavaToTStransformer.TypescriptEnumField val = tsEnum.fields.get(i);
+            out.append(indentation).append(val.name).append(" = ");
+            if (val.value == null) {
+                out.append('\'').append(val.name).append('\'');
+            } else {
+                out.append(val.value);
+            }
+            if (i != tsEnum.fields.size() - 1) {
+                out.append(',');
+            }
+            out.append('\n');
+        }
+        out.append('}');
+    }
+}
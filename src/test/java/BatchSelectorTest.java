@@ -0,0 +1,74 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchSelectorTest {
+    @TempDir
+    Path tmp;
+
+    private Path src;
+
+    @BeforeEach
+    void writeSources() throws IOException {
+        src = tmp.resolve("src");
+        TestSources.write(src, "shop/Exported.java", "package shop;\npublic @interface Exported {\n}");
+        TestSources.write(src, "shop/Address.java", "package shop;\npublic class Address {\n    public String city;\n}");
+        TestSources.write(src, "shop/api/CustomerDto.java", "package shop.api;\nimport shop.Address;\n" +
+                "public class CustomerDto {\n    public Address address;\n    public static class Page {\n        public int size;\n    }\n}");
+        TestSources.write(src, "shop/api/OrderDto.java", "package shop.api;\nimport shop.*;\n" +
+                "@Exported\npublic class OrderDto {\n    public Address shipping;\n    public CustomerDto customer;\n}");
+        TestSources.write(src, "shop/internal/Secret.java", "package shop.internal;\npublic class Secret {\n    public String key;\n}");
+    }
+
+    private List<String> select(JavaToTStransformer transformer, String... specs) {
+        return new BatchSelector(Arrays.asList(specs)).select(transformer.getDeclarations()).stream()
+                .map(t -> t.qualifiedName).collect(Collectors.toList());
+    }
+
+    @Test
+    void selectsByNameGlobAndAnnotation() throws IOException {
+        JavaToTStransformer transformer = new JavaToTStransformer(TestSources.params(src, tmp.resolve("out")));
+        transformer.buildLauncher();
+
+        assertEquals(Arrays.asList("shop.api.CustomerDto", "shop.api.OrderDto"), select(transformer, "shop.api.*"));
+        assertEquals(Arrays.asList("shop.api.CustomerDto", "shop.api.CustomerDto$Page", "shop.api.OrderDto"), select(transformer, "shop.api.**"));
+        assertEquals(Arrays.asList("shop.Address", "shop.api.CustomerDto"), select(transformer, "shop.*s*", "shop.api.Cust*"));
+        assertEquals(Collections.singletonList("shop.api.OrderDto"), select(transformer, "@Exported"));
+        assertEquals(Collections.singletonList("shop.api.OrderDto"), select(transformer, "@shop.Exported"));
+        assertEquals(Arrays.asList("shop.internal.Secret", "shop.api.OrderDto"), select(transformer, "shop.internal.Secret", "@Exported", "shop.internal.*"));
+        assertEquals(Collections.emptyList(), select(transformer, "@other.Exported", "nothing.*"));
+        assertThrows(IllegalArgumentException.class, () -> select(transformer, "shop.api.Missing"));
+    }
+
+    @Test
+    void sharedTypesAreTranslatedAndWrittenOnce() throws IOException {
+        Path list = TestSources.write(tmp, "batch.txt", "# DTOs\n@Exported\n\nshop.api.CustomerDto\n");
+        Map<String, String> params = TestSources.params(src, tmp.resolve("out"));
+        params.put("--batch", list.toString());
+        JavaToTStransformer transformer = new JavaToTStransformer(params);
+        Map<String, String> files = TestSources.translate(transformer, params);
+
+        assertEquals(3, transformer.getMetrics().get(Metrics.TYPES_VISITED));
+        assertEquals(3, transformer.getMetrics().get(Metrics.FILES_WRITTEN));
+
+        // same files as translating the classes one by one
+        Map<String, String> single = null;
+        for (String root : Arrays.asList("shop.api.OrderDto", "shop.api.CustomerDto")) {
+            Map<String, String> singleParams = TestSources.params(src, tmp.resolve("single"));
+            singleParams.put("--batch", TestSources.write(tmp, "single.txt", root).toString());
+            single = TestSources.translate(singleParams);
+        }
+        assertEquals(single, files);
+        assertEquals(3, files.size());
+    }
+}
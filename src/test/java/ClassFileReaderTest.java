@@ -0,0 +1,81 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassFileReaderTest {
+    @TempDir
+    Path tmp;
+
+    private List<Path> list(Path root, String extension) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(f -> f.toString().endsWith(extension)).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private Map<String, String> translate(String input, Path root, String out) throws IOException {
+        Map<String, String> params = TestSources.params(root, tmp.resolve(out));
+        params.remove("-p");
+        params.put(input, root.toString());
+        params.put("-i", "shop.Order");
+        return TestSources.translate(params);
+    }
+
+    @Test
+    void compiledClassesTranslateLikeSources() throws IOException {
+        Path src = tmp.resolve("src");
+        TestSources.write(src, "shop/Entity.java", "package shop;\npublic class Entity<ID> {\n    public ID id;\n    public static final int VERSION = 1;\n}");
+        TestSources.write(src, "shop/Order.java", "package shop;\nimport java.util.*;\nimport shop.customers.Customer;\nimport shop.enums.*;\n" +
+                "@Deprecated\npublic class Order extends Entity<Long> {\n    public List<Item> items;\n    public Status status;\n    public Priority priority;\n" +
+                "    public Map<String, List<Customer>> customers;\n    public Item.Note note;\n    public Item[] itemArray;\n" +
+                "    public int[][] matrix;\n    public Set<? extends Item> wildcard;\n    protected char flag;\n    private String secret;\n" +
+                "    public transient Runnable callback = () -> {};\n    public Object anonymous = new Object() {};\n}");
+        TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public java.math.BigDecimal price;\n" +
+                "    public class Note {\n        public String text;\n    }\n}");
+        TestSources.write(src, "shop/enums/Status.java", "package shop.enums;\npublic enum Status {\n    NEW(\"new \\\"one\\\"\"), PAID(\"paid\");\n" +
+                "    Status(String s) {\n    }\n}");
+        TestSources.write(src, "shop/enums/Priority.java", "package shop.enums;\npublic enum Priority {\n    LOW(1, true), HIGH(200, false), URGENT {\n    };\n" +
+                "    Priority(int level, boolean visible) {\n    }\n    Priority() {\n        this(1000, true);\n    }\n}");
+        TestSources.write(src, "shop/customers/Customer.java", "package shop.customers;\npublic class Customer {\n    public String name;\n}");
+
+        Path classes = tmp.resolve("classes");
+        Files.createDirectories(classes);
+        List<String> args = new ArrayList<>();
+        args.add("-d");
+        args.add(classes.toString());
+        list(src, ".java").forEach(p -> args.add(p.toString()));
+        assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null, args.toArray(new String[0])));
+
+        Path jar = tmp.resolve("shop.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (Path f : list(classes, ".class")) {
+                out.putNextEntry(new JarEntry(classes.relativize(f).toString()));
+                out.write(Files.readAllBytes(f));
+                out.closeEntry();
+            }
+        }
+
+        TypeDeclaration order = ClassFileReader.load(jar.toString()).stream().filter(t -> t.qualifiedName.equals("shop.Order")).findFirst().get();
+        assertEquals(Collections.singletonList("java.lang.Deprecated"), order.annotations);
+
+        Map<String, String> fromSources = translate("-p", src, "src-out");
+        assertEquals(6, fromSources.size());
+        assertTrue(fromSources.get("shop/enums/priority.ts").contains("LOW = 1,\n    HIGH = 200,\n    URGENT = 'URGENT'"));
+        assertTrue(fromSources.get("shop/enums/status.ts").contains("NEW = \"new \\\"one\\\"\""));
+        assertEquals(fromSources, translate("-cp", classes, "classes-out"));
+        assertEquals(fromSources, translate("-cp", jar, "jar-out"));
+    }
+}
@@ -0,0 +1,49 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClassIndexTest {
+    private static TypeDeclaration type(String qualifiedName, TypeDeclaration.Kind kind) {
+        String simpleName = qualifiedName.substring(Math.max(qualifiedName.lastIndexOf('.'), qualifiedName.lastIndexOf('$')) + 1);
+        return new TypeDeclaration(kind, qualifiedName, simpleName, DeclarationExtractor.getPackageName(qualifiedName), null, Collections.emptyList());
+    }
+
+    private final ClassIndex index = new ClassIndex(Arrays.asList(
+            type("shop.OrderLineItem", TypeDeclaration.Kind.CLASS),
+            type("shop.Order", TypeDeclaration.Kind.CLASS),
+            type("shop.OrderLine", TypeDeclaration.Kind.CLASS),
+            type("shop.OrderService", TypeDeclaration.Kind.OTHER),
+            type("shop.enums.OrderStatus", TypeDeclaration.Kind.ENUM),
+            type("billing.Invoice$Line", TypeDeclaration.Kind.CLASS)));
+
+    private static List<String> names(List<TypeDeclaration> types) {
+        return types.stream().map(t -> t.qualifiedName).collect(Collectors.toList());
+    }
+
+    @Test
+    void findContainingMatchesStringContains() {
+        assertEquals(Arrays.asList("shop.OrderLineItem", "shop.OrderLine", "billing.Invoice$Line"), names(index.findContaining("Line")));
+        assertEquals(Arrays.asList("billing.Invoice$Line"), names(index.findContaining("e$L")));
+        assertEquals(new ArrayList<>(), names(index.findContaining("orderline")));
+        assertEquals(5, index.findContaining("").size());
+    }
+
+    @Test
+    void findByPrefixAndCamelHumps() {
+        assertEquals(Arrays.asList("shop.Order", "shop.OrderLine", "shop.OrderLineItem"), names(index.findByPrefix("shop.Order")));
+        assertEquals(Arrays.asList("shop.OrderLine", "shop.OrderLineItem"), names(index.findByCamelHumps("OrLi")));
+        assertEquals(Arrays.asList("shop.enums.OrderStatus"), names(index.findByCamelHumps("OS")));
+    }
+
+    @Test
+    void suggestionsAreRanked() {
+        assertEquals(Arrays.asList("shop.Order", "shop.OrderLine", "shop.OrderLineItem", "shop.enums.OrderStatus"), names(index.suggest("order", 10)));
+        assertEquals(Arrays.asList("shop.OrderLine", "shop.OrderLineItem"), names(index.suggest("OL", 2)));
+        assertEquals("shop.Order", names(index.suggest("shop.Order", 1)).get(0));
+    }
+}
@@ -0,0 +1,81 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import spoon.Launcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DeclarationExtractorTest {
+    @TempDir
+    Path tmp;
+
+    private static List<String> fieldNames(TypeDeclaration type) {
+        return type.fields.stream().map(f -> f.name).collect(Collectors.toList());
+    }
+
+    @Test
+    void extractsDirectFieldsOfEveryNestedType() {
+        String java = "class Outer extends Base {\n" +
+                "    public int a;\n" +
+                "    private int hidden;\n" +
+                "    void work() {\n" +
+                "        class Local { public int local; }\n" +
+                "        Object o = new Object() { public int anonymous; };\n" +
+                "    }\n" +
+                "    public Inner b;\n" +
+                "    static class Inner {\n" +
+                "        public String c;\n" +
+                "        enum Kind { FIRST(\"first\"), SECOND(\"second\"); Kind(String s) { } }\n" +
+                "    }\n" +
+                "    interface Api { int CONSTANT = 1; }\n" +
+                "}";
+        List<TypeDeclaration> declarations = DeclarationExtractor.extract(Launcher.parseClass(java));
+
+        assertEquals("Outer,Outer$Inner,Outer$Inner$Kind,Outer$Api",
+                declarations.stream().map(t -> t.qualifiedName).collect(Collectors.joining(",")));
+        TypeDeclaration outer = declarations.get(0);
+        assertEquals("Base", outer.superClass.qualifiedName);
+        assertEquals(Arrays.asList("a", "b"), fieldNames(outer));
+        assertEquals(Arrays.asList("c"), fieldNames(declarations.get(1)));
+        assertNull(declarations.get(1).superClass);
+
+        TypeDeclaration kind = declarations.get(2);
+        assertEquals(TypeDeclaration.Kind.ENUM, kind.kind);
+        assertEquals("\"first\"", kind.enumValues.get(0).value);
+        assertEquals(TypeDeclaration.Kind.OTHER, declarations.get(3).kind);
+        assertEquals(Collections.emptyList(), fieldNames(declarations.get(3)));
+    }
+
+    @Test
+    void qualifiedArraysOfUnknownTypesKeepTheirName() throws IOException {
+        Path source = TestSources.write(tmp, "a/Holder.java", "package a;\nimport java.util.*;\nclass Holder {\n" +
+                "    public List<b.B[]> arrays;\n    public Map<String, b.c.C[][]> matrices;\n    public List<Local[]> locals;\n}");
+        TypeDeclaration holder = JavaToTStransformer.parseSources(Collections.singletonList(source)).values().iterator().next().get(0);
+        TypeDeclaration.TypeRef arrays = holder.fields.get(0).type.typeArguments.get(0);
+        assertEquals("b.B[]", arrays.qualifiedName);
+        assertEquals("b.B", arrays.componentType.qualifiedName);
+        assertEquals("B", arrays.componentType.simpleName);
+        assertEquals("b.c.C[][]", holder.fields.get(1).type.typeArguments.get(1).qualifiedName);
+        assertEquals("a.Local[]", holder.fields.get(2).type.typeArguments.get(0).qualifiedName);
+    }
+
+    @Test
+    void qualifiedUnknownTypesOfThePackageKeepTheirName() throws IOException {
+        Path source = TestSources.write(tmp, "a/Holder.java", "package a;\nimport java.util.*;\nclass Holder {\n" +
+                "    public Set<a.A> set;\n    public Map<String, List<a.b.B>> nested;\n    public List<a.A[]> arrays;\n}");
+        TypeDeclaration holder = JavaToTStransformer.parseSources(Collections.singletonList(source)).values().iterator().next().get(0);
+        TypeDeclaration.TypeRef set = holder.fields.get(0).type.typeArguments.get(0);
+        assertEquals("a.A", set.qualifiedName);
+        assertEquals("A", set.simpleName);
+        TypeDeclaration.TypeRef nested = holder.fields.get(1).type.typeArguments.get(1).typeArguments.get(0);
+        assertEquals("a.b.B", nested.qualifiedName);
+        assertEquals("B", nested.simpleName);
+        assertEquals("a.A[]", holder.fields.get(2).type.typeArguments.get(0).qualifiedName);
+    }
+}
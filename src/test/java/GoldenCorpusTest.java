@@ -0,0 +1,174 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.log4j.Logger;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Translates every case of src/test/resources/corpus through {@link JavaToTStransformer#run}, compares the written
+ * files with the expected ones and checks that second, warm, translations stay within the wall time and allocation
+ * budgets of the case. The files written in --stream and --lazy modes have to be the same. A case is a directory with
+ * the sources under src, the expected files under expected and a case.properties with the classes to translate and
+ * the budgets.
+ * The generated case is built by {@link #generate} and only its digest is kept.
+ * <p>
+ * After a deliberate change of the output, run with -Dcorpus.update=true to write the new expected files.
+ */
+class GoldenCorpusTest {
+    private static final Logger logger = Logger.getLogger(GoldenCorpusTest.class);
+    private static final Path CORPUS_SOURCES = Paths.get("src/test/resources/corpus");
+    private static final boolean UPDATE = Boolean.getBoolean("corpus.update");
+
+    @TempDir
+    Path tmp;
+
+    @TestFactory
+    Stream<DynamicTest> corpus() throws IOException, URISyntaxException {
+        Path corpus = Paths.get(GoldenCorpusTest.class.getResource("/corpus").toURI());
+        List<Path> cases;
+        try (Stream<Path> dirs = Files.list(corpus)) {
+            cases = dirs.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+        }
+        return cases.stream().map(dir -> DynamicTest.dynamicTest(dir.getFileName().toString(), () -> check(dir)));
+    }
+
+    private void check(Path dir) throws IOException {
+        String name = dir.getFileName().toString();
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(dir.resolve("case.properties"))) {
+            properties.load(reader);
+        }
+        Path src = dir.resolve("src");
+        if (properties.containsKey("generate")) {
+            src = tmp.resolve(name + "-src");
+            int[] sizes = Arrays.stream(properties.getProperty("generate").split(",")).mapToInt(Integer::parseInt).toArray();
+            generate(src, sizes[0], sizes[1]);
+        }
+        Map<String, String> output = translate(src, properties.getProperty("classes"), tmp.resolve(name + "-out"), null);
+        for (String mode : new String[]{"--stream", "--lazy"}) {
+            assertEquals(output, translate(src, properties.getProperty("classes"), tmp.resolve(name + mode), mode), name + " " + mode);
+        }
+
+        if (properties.containsKey("generate")) {
+            Path digestFile = dir.resolve("expected.sha256");
+            String digest = output.size() + " " + digest(output);
+            if (UPDATE) {
+                Files.write(CORPUS_SOURCES.resolve(name).resolve("expected.sha256"), (digest + "\n").getBytes(StandardCharsets.UTF_8));
+            } else {
+                assertEquals(new String(Files.readAllBytes(digestFile), StandardCharsets.UTF_8).trim(), digest, name);
+            }
+        } else if (UPDATE) {
+            Path expected = CORPUS_SOURCES.resolve(name).resolve("expected");
+            for (Map.Entry<String, String> file : output.entrySet()) {
+                Path path = expected.resolve(file.getKey());
+                Files.createDirectories(path.getParent());
+                Files.write(path, file.getValue().getBytes(StandardCharsets.UTF_8));
+            }
+        } else {
+            assertEquals(TestSources.readFiles(dir.resolve("expected")), output, name);
+        }
+
+        // the budgets apply to warm runs of every mode, the wall time one being generous enough for slow machines
+        long wallBudget = Long.parseLong(properties.getProperty("budget.wallSeconds"));
+        long allocationBudget = Long.parseLong(properties.getProperty("budget.allocatedMegabytes"));
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (String mode : new String[]{null, "--stream", "--lazy"}) {
+            String run = mode == null ? name : name + " " + mode;
+            long allocatedStart = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            long wallStart = System.nanoTime();
+            translate(src, properties.getProperty("classes"), tmp.resolve(name + "-warm" + (mode == null ? "" : mode)), mode);
+            long wallMillis = (System.nanoTime() - wallStart) / 1_000_000;
+            long allocatedMegabytes = (threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedStart) >> 20;
+            logger.info(String.format("Corpus %s took %d ms and allocated %d MB", run, wallMillis, allocatedMegabytes));
+            assertTrue(wallMillis <= wallBudget * 1000, String.format("%s took %d ms, budget is %d s", run, wallMillis, wallBudget));
+            assertTrue(allocatedMegabytes <= allocationBudget,
+                    String.format("%s allocated %d MB, budget is %d MB", run, allocatedMegabytes, allocationBudget));
+        }
+    }
+
+    private static Map<String, String> translate(Path src, String classes, Path out, String mode) throws IOException {
+        Path batch = Files.createDirectories(out).resolve("batch.txt");
+        Files.write(batch, Arrays.asList(classes.split(",")));
+        Map<String, String> params = TestSources.params(src, out.resolve("ts"));
+        params.put("--batch", batch.toString());
+        if (mode != null) {
+            params.put(mode, null);
+        }
+        return TestSources.translate(params);
+    }
+
+    private static String digest(Map<String, String> files) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                digest.update(file.getKey().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(file.getValue().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes classes gen.p&lt;n&gt;.C&lt;i&gt; in chains of inheritance, each referencing the next class, the first one and
+     * one of the enums gen.p&lt;n&gt;.E&lt;k&gt; shared by ten classes.
+     */
+    static void generate(Path src, int classCount, int chainLength) throws IOException {
+        for (int i = 0; i < classCount; i++) {
+            String next = "gen.p" + ((i + 1) % classCount % 10) + ".C" + ((i + 1) % classCount);
+            String superClass = i % chainLength == 0 ? "" : " extends gen.p" + ((i - 1) % 10) + ".C" + (i - 1);
+            write(src, "gen.p" + (i % 10), "C" + i, Arrays.asList(
+                    "public class C" + i + superClass + " {",
+                    "    public String name" + i + ";",
+                    "    public int count" + i + ";",
+                    "    public " + next + " next;",
+                    "    public List<Map<String, " + next + "[]>> nested" + i + ";",
+                    "    public Set<gen.p0.C0> roots;",
+                    "    public gen.p" + (i / 10 % 10) + ".E" + (i / 10) + " kind;",
+                    "    public long[] values;",
+                    "}"));
+        }
+        for (int k = 0; k * 10 < classCount; k++) {
+            write(src, "gen.p" + (k % 10), "E" + k, Arrays.asList(
+                    "public enum E" + k + " {",
+                    "    FIRST(\"first-" + k + "\"), SECOND(\"second-" + k + "\");",
+                    "    private final String value;",
+                    "    E" + k + "(String value) {",
+                    "        this.value = value;",
+                    "    }",
+                    "}"));
+        }
+    }
+
+    private static void write(Path src, String pkg, String name, List<String> body) throws IOException {
+        List<String> lines = new ArrayList<>(Arrays.asList("package " + pkg + ";", "", "import java.util.*;", ""));
+        lines.addAll(body);
+        TestSources.write(src, pkg.replace('.', '/') + "/" + name + ".java", String.join("\n", lines) + "\n");
+    }
+}
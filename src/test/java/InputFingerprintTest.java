@@ -0,0 +1,65 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InputFingerprintTest {
+    @TempDir
+    Path tmp;
+
+    @Test
+    void fingerprintChangesWithSourcesAndParameters() throws IOException {
+        Path src = tmp.resolve("src");
+        TestSources.write(src, "shop/Order.java", "package shop;\npublic class Order {\n}");
+        TestSources.write(src, "shop/notes.txt", "not a source");
+        Map<String, String> params = new HashMap<>();
+        params.put("-p", src.toString());
+        params.put("-i", "shop.Order");
+        String fingerprint = InputFingerprint.compute(params);
+        assertEquals(fingerprint, InputFingerprint.compute(params));
+
+        TestSources.write(src, "shop/notes.txt", "still not a source");
+        assertEquals(fingerprint, InputFingerprint.compute(params));
+
+        TestSources.write(src, "shop/Order.java", "package shop;\npublic class Order {\n    public int id;\n}");
+        String changed = InputFingerprint.compute(params);
+        assertNotEquals(fingerprint, changed);
+
+        params.put("-fr", tmp.resolve("front").toString());
+        assertNotEquals(changed, InputFingerprint.compute(params));
+    }
+
+    @Test
+    void fingerprintChangesWithTheTransformer() throws IOException {
+        Map<String, String> params = new HashMap<>();
+        params.put("-i", "shop.Order");
+        assertEquals(InputFingerprint.compute(params, InputFingerprint.getImplementation()), InputFingerprint.compute(params));
+        assertNotEquals(InputFingerprint.compute(params, "1.0"), InputFingerprint.compute(params, "1.1"));
+    }
+
+    @Test
+    void upToDateUntilOutputsAreTouched() throws IOException {
+        Path state = tmp.resolve("j2ts/inputs");
+        Path manifest = tmp.resolve("j2ts/manifest");
+        Path output = tmp.resolve("out/order.ts");
+        assertFalse(InputFingerprint.isUpToDate(state, "abc", manifest));
+
+        OutputWriter writer = new OutputWriter(manifest);
+        writer.write(output, "export interface Order {\n}");
+        writer.saveManifest();
+        InputFingerprint.save(state, "abc");
+        assertTrue(InputFingerprint.isUpToDate(state, "abc", manifest));
+        assertFalse(InputFingerprint.isUpToDate(state, "abd", manifest));
+
+        Files.delete(output);
+        assertFalse(InputFingerprint.isUpToDate(state, "abc", manifest));
+    }
+}
@@ -1,4 +1,6 @@
 import spoon.Launcher;
+import spoon.reflect.declaration.CtType;
+import spoon.support.compiler.VirtualFile;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -75,4 +77,29 @@ class JavaToTStransformerTest {
                 "}";
         assertEquals(result, getTsCode(java));
     }
-}
\ No newline at end of file
+
+    @org.junit.jupiter.api.Test
+    void parallelTranslationMatchesSequential() {
+        StringBuilder java = new StringBuilder("package gen;\nimport java.util.*;\n");
+        for (int i = 0; i < 200; i++) {
+            java.append(String.format("class C%d%s {\n    public C%d next;\n    public List<C%d> list;\n    public Map<String, C%d> map;\n    public int value;\n}\n",
+                    i, i > 0 ? " extends C" + (i / 2) : "", (i + 1) % 200, (i * 7) % 200, (i * 13) % 200));
+        }
+        Launcher launcher = new Launcher();
+        launcher.addInputResource(new VirtualFile(java.toString()));
+        launcher.getEnvironment().setNoClasspath(true);
+        launcher.buildModel();
+        JavaToTStransformer sequential = new JavaToTStransformer(true);
+        for (CtType<?> type : launcher.getModel().getAllTypes()) {
+            sequential.getDeclarations().addAll(DeclarationExtractor.extract(type));
+        }
+        sequential.parseType(sequential.getDeclarations().get("gen.C0"));
+
+        JavaToTStransformer parallel = new JavaToTStransformer(true);
+        parallel.getDeclarations().addAll(sequential.getDeclarations().values());
+        parallel.parseType(parallel.getDeclarations().get("gen.C0"), 4);
+
+        assertEquals(200, sequential.toString().split("export interface").length - 1);
+        assertEquals(sequential.toString(), parallel.toString());
+    }
+}
@@ -0,0 +1,101 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsTest {
+    @TempDir
+    Path tmp;
+
+    @Test
+    void countsWhatRunsDo() throws IOException {
+        Path src = tmp.resolve("src");
+        TestSources.write(src, "shop/Order.java", "package shop;\nimport java.util.*;\n" +
+                "public class Order {\n    public List<Item> items;\n    public Status status;\n    public String note;\n}");
+        TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public double price;\n}");
+        TestSources.write(src, "shop/Status.java", "package shop;\npublic enum Status {\n    NEW, PAID\n}");
+        Map<String, String> params = TestSources.params(src, tmp.resolve("out"));
+        params.put("-i", "shop.Order");
+        params.put("--metrics", "json");
+        params.put("--metrics-out", tmp.resolve("metrics.json").toString());
+
+        JavaToTStransformer transformer = new JavaToTStransformer(params);
+        TestSources.translate(transformer, params);
+        Metrics metrics = transformer.getMetrics();
+        assertEquals(3, metrics.get(Metrics.SOURCES_PARSED));
+        assertEquals(3, metrics.get(Metrics.TYPES_VISITED));
+        assertEquals(4, metrics.get(Metrics.FIELDS_MAPPED));
+        assertEquals(2, metrics.get(Metrics.IMPORTS_GENERATED));
+        assertEquals(3, metrics.get(Metrics.FILES_WRITTEN));
+
+        JavaToTStransformer.run(transformer, params);
+        assertEquals(3, metrics.get(Metrics.FILES_WRITTEN));
+        assertEquals(3, metrics.get(Metrics.FILES_READ));
+        assertEquals(3, metrics.get(Metrics.FILES_SKIPPED));
+
+        String json = new String(Files.readAllBytes(tmp.resolve("metrics.json")));
+        assertTrue(json.contains("\"translation\": {\"runs\": 2,"), json);
+        assertTrue(json.contains("\"files_skipped\": 3"), json);
+        String prometheus = metrics.toPrometheus();
+        assertTrue(prometheus.contains("j2ts_phase_runs{phase=\"model\"} 1\n"), prometheus);
+        assertTrue(prometheus.contains("j2ts_types_visited_total 6\n"), prometheus);
+
+        assertThrows(IllegalArgumentException.class, () -> metrics.report("xml", null));
+    }
+
+    private static final int TASK_BYTES = 8 << 20;
+
+    private static long allocated(Metrics metrics, String phase) {
+        Matcher matcher = Pattern.compile("j2ts_phase_allocated_bytes\\{phase=\"" + phase + "\"} (\\d+)").matcher(metrics.toPrometheus());
+        assertTrue(matcher.find(), phase);
+        return Long.parseLong(matcher.group(1));
+    }
+
+    @Test
+    void countsAllocationsOfPoolsShutDownBeforeThePhaseEnds() throws Exception {
+        Metrics metrics = new Metrics();
+        try (Metrics.Phase ignored = metrics.start("executor")) {
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            List<Future<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(metrics.track(() -> new byte[TASK_BYTES])));
+            }
+            for (Future<byte[]> future : futures) {
+                assertEquals(TASK_BYTES, future.get().length);
+            }
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        try (Metrics.Phase ignored = metrics.start("fork-join")) {
+            ForkJoinPool pool = metrics.newForkJoinPool(2);
+            List<Future<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(pool.submit(() -> new byte[TASK_BYTES]));
+            }
+            for (Future<byte[]> future : futures) {
+                assertEquals(TASK_BYTES, future.get().length);
+            }
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        for (String phase : new String[]{"executor", "fork-join"}) {
+            long allocated = allocated(metrics, phase);
+            assertTrue(allocated >= 4L * TASK_BYTES && allocated < 6L * TASK_BYTES, phase + ": " + allocated);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ModelCacheTest {
+    @TempDir
+    Path tmp;
+
+    private Map<String, String> translate(Path src, Path cache, String out) throws IOException {
+        Map<String, String> params = TestSources.params(src, tmp.resolve(out));
+        params.put("-i", "shop.Order");
+        if (cache != null) {
+            params.put("-c", cache.toString());
+        }
+        return TestSources.translate(params);
+    }
+
+    @Test
+    void coldWarmAndPartialRunsAreIdentical() throws IOException {
+        Path src = tmp.resolve("src");
+        Path cache = tmp.resolve("cache");
+        TestSources.write(src, "shop/BaseEntity.java", "package shop;\npublic class BaseEntity {\n    public long id;\n}");
+        TestSources.write(src, "shop/Order.java", "package shop;\nimport java.util.*;\nimport shop.customers.*;\nimport shop.enums.Status;\n" +
+                "public class Order extends BaseEntity {\n    public List<Item> items;\n    public Status status;\n" +
+                "    public Map<String, Customer> customers;\n    public Item.Note note;\n}");
+        TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public Price price;\n" +
+                "    public static class Note {\n        public String text;\n    }\n}");
+        TestSources.write(src, "shop/Price.java", "package shop;\npublic class Price {\n    public double amount;\n}");
+        TestSources.write(src, "shop/enums/Status.java", "package shop.enums;\npublic enum Status {\n    NEW, PAID\n}");
+        TestSources.write(src, "shop/customers/Customer.java", "package shop.customers;\npublic class Customer {\n    public String name;\n}");
+
+        Map<String, String> cold = translate(src, cache, "cold");
+        Map<String, String> warm = translate(src, cache, "warm");
+        assertEquals(translate(src, null, "uncached"), cold);
+        assertEquals(cold, warm);
+        assertEquals(6, cold.size());
+
+        TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public Price price;\n    public int quantity;\n" +
+                "    public static class Note {\n        public String text;\n    }\n}");
+        Map<String, String> partial = translate(src, cache, "partial");
+        assertEquals(translate(src, null, "uncached-changed"), partial);
+        assertFalse(partial.equals(cold));
+    }
+
+    @Test
+    void keepsOneEntryPerSourceFile() throws IOException {
+        Path src = tmp.resolve("src");
+        Path cache = tmp.resolve("cache");
+        TestSources.write(src, "shop/Order.java", "package shop;\npublic class Order {\n    public Item item;\n}");
+        TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public double price;\n}");
+        Path note = TestSources.write(src, "shop/Note.java", "package shop;\npublic class Note {\n    public String text;\n}");
+        translate(src, cache, "first");
+        assertEquals(3, countEntries(cache));
+
+        TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public double price;\n    public int quantity;\n}");
+        translate(src, cache, "changed");
+        assertEquals(3, countEntries(cache));
+
+        Files.delete(note);
+        Map<String, String> files = translate(src, cache, "deleted");
+        assertEquals(2, countEntries(cache));
+        assertEquals(translate(src, null, "uncached"), files);
+    }
+
+    private static long countEntries(Path cache) throws IOException {
+        try (Stream<Path> entries = Files.list(cache)) {
+            return entries.count();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class OutputPathsTest {
+    private static TypeDeclaration type(String qualifiedName, String sourceFile) {
+        String simpleName = qualifiedName.substring(Math.max(qualifiedName.lastIndexOf('.'), qualifiedName.lastIndexOf('$')) + 1);
+        return new TypeDeclaration(TypeDeclaration.Kind.CLASS, qualifiedName, simpleName, DeclarationExtractor.getPackageName(qualifiedName), sourceFile, Collections.emptyList());
+    }
+
+    @Test
+    void pathsAndImportsFollowSourceLayout() {
+        Map<String, String> params = new HashMap<>();
+        params.put("-sr", "/repo/src/main/java/");
+        params.put("-tr", "/repo/front/src/app/model");
+        params.put("-fr", "/repo/front/src");
+        OutputPaths paths = new OutputPaths(params);
+
+        TypeDeclaration line = type("shop.OrderLine", "/repo/src/main/java/shop/orders/OrderLine.java");
+        assertEquals("/repo/front/src/app/model/shop/orders/order-line.ts", paths.getPath(line));
+        assertEquals("import { OrderLine } from '@app/model/shop/orders/order-line';", paths.getImport(line));
+        assertSame(paths.getImport(line), paths.getImport(line));
+
+        // nested types are written to the file of their outer type
+        TypeDeclaration page = type("shop.OrderLine$Page", "/repo/src/main/java/shop/orders/OrderLine.java");
+        assertEquals(paths.getPath(line), paths.getPath(page));
+        assertEquals("import { Page } from '@app/model/shop/orders/order-line';", paths.getImport(page));
+    }
+
+    @Test
+    void noPathWithoutTargetRoot() {
+        assertNull(new OutputPaths(new HashMap<>()).getPath(type("shop.Order", "/repo/src/main/java/shop/Order.java")));
+    }
+}
@@ -0,0 +1,76 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class OutputWriterTest {
+    @TempDir
+    Path tmp;
+
+    private static final FileTime OLD = FileTime.fromMillis(0);
+
+    private String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path));
+    }
+
+    @Test
+    void unchangedFilesAreNotRewritten() throws IOException {
+        Path file = tmp.resolve("out/a/A.ts");
+        assertTrue(new OutputWriter(null).write(file, "export interface A {\n}"));
+        Files.setLastModifiedTime(file, OLD);
+
+        assertFalse(new OutputWriter(null).write(file, "export interface A {\n}"));
+        assertEquals(OLD, Files.getLastModifiedTime(file));
+
+        assertTrue(new OutputWriter(null).write(file, "export interface A {\n    b: string;\n}"));
+        assertEquals("export interface A {\n    b: string;\n}", read(file));
+    }
+
+    @Test
+    void manifestIsRememberedBetweenRuns() throws IOException {
+        Path manifest = tmp.resolve("manifest");
+        Path file = tmp.resolve("out/A.ts");
+        OutputWriter writer = new OutputWriter(manifest);
+        writer.write(file, "export interface A {\n}");
+        writer.saveManifest();
+        assertTrue(read(manifest).endsWith(" " + file + "\n"));
+
+        Files.setLastModifiedTime(file, OLD);
+        writer = new OutputWriter(manifest);
+        assertFalse(writer.write(file, "export interface A {\n}"));
+        assertEquals(OLD, Files.getLastModifiedTime(file));
+
+        // a file edited by hand has a different size than the one in the manifest, so it is replaced
+        Files.write(file, "edited".getBytes());
+        assertTrue(writer.write(file, "export interface A {\n}"));
+        assertEquals("export interface A {\n}", read(file));
+    }
+
+    @Test
+    void writtenFilesHaveTheUsualPermissions() throws IOException {
+        assumeTrue(Files.getFileAttributeView(tmp, PosixFileAttributeView.class) != null);
+        Path manifest = tmp.resolve("manifest");
+        Path file = tmp.resolve("out/A.ts");
+        Path usual = Files.write(tmp.resolve("usual"), "usual".getBytes());
+        OutputWriter writer = new OutputWriter(manifest);
+        writer.write(file, "export interface A {\n}");
+        writer.saveManifest();
+        assertEquals(Files.getPosixFilePermissions(usual), Files.getPosixFilePermissions(file));
+        assertEquals(Files.getPosixFilePermissions(usual), Files.getPosixFilePermissions(manifest));
+
+        // permissions given to a generated file are kept when it is replaced
+        Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-r-----"));
+        writer.write(file, "export interface A {\n    b: string;\n}");
+        assertEquals(PosixFilePermissions.fromString("rw-r-----"), Files.getPosixFilePermissions(file));
+        assertEquals(1, TestSources.readFiles(file.getParent()).size());
+    }
+}
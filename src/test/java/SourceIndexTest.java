@@ -0,0 +1,116 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceIndexTest {
+    @TempDir
+    Path tmp;
+
+    private Map<String, String> translate(Path src, String out, boolean lazy, Map<String, JavaToTStransformer> transformers) throws IOException {
+        Map<String, String> params = TestSources.params(src, tmp.resolve(out));
+        params.put("-i", "Order");
+        if (lazy) {
+            params.put("--lazy", null);
+        }
+        JavaToTStransformer transformer = new JavaToTStransformer(params);
+        transformers.put(out, transformer);
+        return TestSources.translate(transformer, params);
+    }
+
+    @Test
+    void lazyLoadingParsesOnlyReachableFiles() throws IOException {
+        Path src = tmp.resolve("src");
+        TestSources.write(src, "shop/Order.java", "package shop;\nimport java.util.*;\nimport shop.customers.*;\n" +
+                "public class Order extends shop.base.Entity {\n    public List<Item> items;\n    public Customer customer;\n" +
+                "    public Item.Note note;\n    public Map<String, shop.customers.Customer[]> byName;\n}");
+        TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public Price price;\n" +
+                "    public static class Note {\n        public String text;\n    }\n}");
+        TestSources.write(src, "shop/Price.java", "package shop;\npublic class Price {\n    public double amount;\n}");
+        TestSources.write(src, "shop/base/Entity.java", "/* package shop.wrong; */\npackage shop.base;\npublic class Entity {\n    public long id;\n}");
+        TestSources.write(src, "shop/customers/Customer.java", "package shop.customers;\npublic class Customer {\n    public String name;\n}");
+        TestSources.write(src, "other/Unrelated.java", "package other;\npublic class Unrelated {\n    public String name;\n}");
+
+        Map<String, JavaToTStransformer> transformers = new HashMap<>();
+        Map<String, String> lazy = translate(src, "lazy", true, transformers);
+        assertEquals(translate(src, "eager", false, transformers), lazy);
+        assertEquals(5, lazy.size());
+        assertTrue(transformers.get("eager").getDeclarations().contains("other.Unrelated"));
+        assertFalse(transformers.get("lazy").getDeclarations().contains("other.Unrelated"));
+    }
+
+    @Test
+    void scanFindsDeclaredTypesAndTheirAnnotations() throws IOException {
+        Path src = tmp.resolve("src");
+        TestSources.write(src, "shop/Order.java", "// class Commented {}\npackage shop;\nimport static java.util.Collections.emptyList;\n" +
+                "@Exported @SuppressWarnings({\"unchecked\", \"class Fake {\"})\npublic class Order {\n" +
+                "    @Deprecated public String name = \"enum NotAType { }\";\n    Class<?> type = String.class;\n" +
+                "    void run() {\n        class Local {\n        }\n        new Object() {\n        };\n    }\n" +
+                "    @com.acme.Exported\n    public enum Status {\n        NEW { }, DONE;\n        interface Visitor {\n        }\n    }\n}\n" +
+                "@interface Marker {\n}\nclass Helper {\n}\n");
+
+        SourceIndex.Scan scan = SourceIndex.scan(src.resolve("shop/Order.java"));
+        assertEquals("shop", scan.packageName);
+        assertEquals(Arrays.asList("Order", "Order$Status", "Order$Status$Visitor", "Marker", "Helper"), scan.types);
+        assertEquals(new HashSet<>(Arrays.asList("Exported", "SuppressWarnings", "com.acme.Exported")), scan.annotations);
+
+        SourceIndex index = new SourceIndex(Collections.singletonList(src.resolve("shop/Order.java")));
+        assertEquals(src.resolve("shop/Order.java"), index.locate("shop.Helper"));
+        assertEquals(src.resolve("shop/Order.java"), index.locate("shop.Order$Status$Visitor"));
+        assertEquals(1, index.findAnnotated("com.acme.Exported").size());
+        assertTrue(index.findAnnotated("Deprecated").isEmpty());
+    }
+
+    @Test
+    void lazyBatchParsesOnlySelectedFilesAndTheirReferences() throws IOException {
+        Path src = tmp.resolve("src");
+        TestSources.write(src, "shop/Order.java", "package shop;\n@Exported\npublic class Order {\n    public Price price;\n}");
+        TestSources.write(src, "shop/Price.java", "package shop;\npublic class Price {\n    public double amount;\n}");
+        TestSources.write(src, "shop/Exported.java", "package shop;\npublic @interface Exported {\n}");
+        TestSources.write(src, "other/Unrelated.java", "package other;\npublic class Unrelated {\n    public String name;\n}");
+        Path batch = TestSources.write(tmp, "batch.txt", "@Exported\n");
+
+        Map<String, String> params = TestSources.params(src, tmp.resolve("out"));
+        params.put("--batch", batch.toString());
+        params.put("--lazy", null);
+        JavaToTStransformer transformer = new JavaToTStransformer(params);
+        Map<String, String> files = TestSources.translate(transformer, params);
+
+        assertEquals(new TreeSet<>(Arrays.asList("shop/order.ts", "shop/price.ts")), files.keySet());
+        assertTrue(transformer.getDeclarations().contains("shop.Price"));
+        assertFalse(transformer.getDeclarations().contains("other.Unrelated"));
+        assertFalse(transformer.getDeclarations().contains("shop.Exported"));
+    }
+
+    @Test
+    void findsTheFilesOfTheTypesUsedOutsideOfMethodBodies() throws IOException {
+        Path src = tmp.resolve("src");
+        Path order = TestSources.write(src, "shop/Order.java", "package shop;\nimport java.util.*;\nimport shop.customers.*;\n" +
+                "import static shop.util.Strings.trim;\npublic class Order extends shop.base.Entity {\n    public List<Item> items;\n" +
+                "    public Item.Note note;\n    public Map<String, Customer> customers;\n    Class<?> type = Price.class;\n" +
+                "    void run() {\n        other.Unrelated unrelated = null;\n    }\n}");
+        TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public Price price;\n" +
+                "    public static class Note {\n        public String text;\n    }\n}");
+        TestSources.write(src, "shop/Price.java", "package shop;\npublic class Price {\n    public double amount;\n}");
+        TestSources.write(src, "shop/base/Entity.java", "package shop.base;\npublic class Entity {\n    public long id;\n}");
+        TestSources.write(src, "shop/customers/Customer.java", "package shop.customers;\npublic class Customer {\n    public String name;\n}");
+        TestSources.write(src, "shop/util/Strings.java", "package shop.util;\npublic class Strings {\n}");
+        TestSources.write(src, "other/Unrelated.java", "package other;\npublic class Unrelated {\n}");
+
+        SourceIndex index = new SourceIndex(JavaToTStransformer.listSources(src.toString()));
+        Path root = src.toRealPath();
+        assertEquals(new TreeSet<>(Arrays.asList(root.resolve("shop/Item.java"), root.resolve("shop/Price.java"),
+                        root.resolve("shop/base/Entity.java"), root.resolve("shop/customers/Customer.java"))),
+                index.findReferenced(Collections.singletonList(order.toRealPath())));
+    }
+}
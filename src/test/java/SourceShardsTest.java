@@ -0,0 +1,61 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SourceShardsTest {
+    @TempDir
+    Path tmp;
+
+    @Test
+    void splitsByRootThenBySize() {
+        List<Path> roots = Arrays.asList(Paths.get("/a"), Paths.get("/a/b"), Paths.get("/c"));
+        List<Path> files = Stream.of("/a/1", "/a/2", "/a/3", "/a/4", "/a/5", "/a/b/1", "/c/1", "/d/1")
+                .map(Paths::get).collect(Collectors.toList());
+        List<List<Path>> shards = SourceShards.split(files, roots, 2);
+        assertEquals("[[/a/1, /a/2], [/a/3, /a/4, /a/5], [/a/b/1], [/c/1], [/d/1]]", shards.toString());
+        assertEquals("[[/a/1, /a/2, /a/3, /a/4, /a/5], [/a/b/1], [/c/1], [/d/1]]", SourceShards.split(files, roots, 1).toString());
+    }
+
+    private Map<String, String> translate(Path src, Map<Path, List<TypeDeclaration>> model, String out) throws IOException {
+        Map<String, String> params = TestSources.params(src, tmp.resolve(out));
+        params.put("-p", src.resolve("api") + ":" + src.resolve("core"));
+        params.put("-i", "shop.api.Order");
+        JavaToTStransformer transformer = new JavaToTStransformer(params);
+        model.values().forEach(transformer.getDeclarations()::addAll);
+        JavaToTStransformer.run(transformer, params);
+        return TestSources.readFiles(tmp.resolve(out));
+    }
+
+    @Test
+    void shardedModelResolvesTypesAcrossShards() throws IOException {
+        Path src = tmp.resolve("src");
+        TestSources.write(src, "core/shop/core/Entity.java", "package shop.core;\npublic class Entity {\n    public long id;\n}");
+        TestSources.write(src, "core/shop/core/Money.java", "package shop.core;\npublic class Money {\n    public double amount;\n" +
+                "    public static class Currency {\n        public String code;\n    }\n}");
+        TestSources.write(src, "core/shop/core/Status.java", "package shop.core;\npublic enum Status {\n    NEW(\"new\"), PAID(\"paid\");\n" +
+                "    Status(String s) {\n    }\n}");
+        TestSources.write(src, "api/shop/api/Line.java", "package shop.api;\nimport shop.core.*;\n" +
+                "public class Line extends Entity {\n    public Money price;\n    public Money.Currency currency;\n}");
+        TestSources.write(src, "api/shop/api/Order.java", "package shop.api;\nimport java.util.*;\nimport shop.core.Entity;\nimport shop.core.Status;\n" +
+                "public class Order extends Entity {\n    public List<Line> lines;\n    public Map<String, Line> byId;\n    public Status status;\n}");
+
+        List<Path> sources = JavaToTStransformer.listSources(src.resolve("api") + ":" + src.resolve("core"));
+        Map<String, String> params = new HashMap<>();
+        params.put("-p", src.resolve("api") + ":" + src.resolve("core"));
+        JavaToTStransformer sharded = new JavaToTStransformer(params);
+        Map<String, String> expected = translate(src, JavaToTStransformer.parseSources(sources), "single");
+        assertEquals(5, expected.size());
+        assertEquals(expected, translate(src, sharded.parseSources(sources, 2), "roots"));
+        assertEquals(expected, translate(src, sharded.parseSources(sources, 5), "files"));
+    }
+}
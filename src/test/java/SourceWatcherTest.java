@@ -0,0 +1,129 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceWatcherTest {
+    @TempDir
+    Path tmp;
+
+    private String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path));
+    }
+
+    @Test
+    void rewritesOnlyAffectedFiles() throws IOException {
+        Path src = tmp.resolve("src");
+        Path out = tmp.resolve("out");
+        TestSources.write(src, "shop/Order.java", "package shop;\npublic class Order {\n    public Item item;\n    public Customer customer;\n}");
+        Path item = TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public Price price;\n}").toRealPath();
+        TestSources.write(src, "shop/Price.java", "package shop;\npublic class Price {\n    public double amount;\n}");
+        TestSources.write(src, "shop/Customer.java", "package shop;\npublic class Customer {\n    public String name;\n}");
+
+        Map<String, String> params = TestSources.params(src, out);
+        params.put("-i", "shop.Order");
+        JavaToTStransformer transformer = new JavaToTStransformer(params);
+        TestSources.translate(transformer, params);
+
+        FileTime old = FileTime.fromMillis(0);
+        for (String file : new String[]{"order.ts", "item.ts", "price.ts", "customer.ts"}) {
+            Files.setLastModifiedTime(out.resolve("shop").resolve(file), old);
+        }
+
+        try (SourceWatcher watcher = new SourceWatcher(transformer, params)) {
+            TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public Price price;\n    public Discount discount;\n}");
+            Path discount = TestSources.write(src, "shop/Discount.java", "package shop;\npublic class Discount {\n    public int percent;\n}").toRealPath();
+            watcher.update(new TreeSet<>(Arrays.asList(item, discount)));
+        }
+
+        assertEquals("import { Discount } from '@shop/discount';\nimport { Price } from '@shop/price';\n\n" +
+                "export interface Item {\n    price: Price;\n    discount: Discount;\n}", read(out.resolve("shop/item.ts")));
+        assertEquals("\n\nexport interface Discount {\n    percent: number;\n}", read(out.resolve("shop/discount.ts")));
+        assertTrue(Files.getLastModifiedTime(out.resolve("shop/item.ts")).toMillis() > 0);
+        for (String file : new String[]{"order.ts", "price.ts", "customer.ts"}) {
+            assertEquals(old, Files.getLastModifiedTime(out.resolve("shop").resolve(file)), file);
+        }
+        assertFalse(transformer.reparse(Collections.singleton("shop.Customer")).isEmpty());
+    }
+
+    @Test
+    void deletedSourcesDeleteTheirFiles() throws IOException {
+        Path src = tmp.resolve("src");
+        Path out = tmp.resolve("out");
+        Path manifest = tmp.resolve("manifest");
+        TestSources.write(src, "shop/Order.java", "package shop;\npublic class Order {\n    public Customer customer;\n    public String id;\n}");
+        Path customer = TestSources.write(src, "shop/Customer.java", "package shop;\npublic class Customer {\n    public String name;\n}").toRealPath();
+
+        Map<String, String> params = TestSources.params(src, out);
+        params.put("-i", "shop.Order");
+        params.put("-m", manifest.toString());
+        JavaToTStransformer transformer = new JavaToTStransformer(params);
+        TestSources.translate(transformer, params);
+        assertTrue(read(manifest).contains(out.resolve("shop/customer.ts").toString()));
+
+        try (SourceWatcher watcher = new SourceWatcher(transformer, params)) {
+            Files.delete(customer);
+            watcher.update(Collections.singleton(customer));
+        }
+
+        assertEquals(Collections.singleton("shop/order.ts"), TestSources.readFiles(out).keySet());
+        assertFalse(read(manifest).contains("customer.ts"));
+        assertTrue(new OutputWriter(manifest).isManifestIntact());
+    }
+
+    @Test
+    void changedSourcesAreNotTakenFromTheCache() throws IOException {
+        Path src = tmp.resolve("src");
+        Path out = tmp.resolve("out");
+        TestSources.write(src, "shop/Order.java", "package shop;\npublic class Order {\n    public Item item;\n}");
+        Path item = TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public double price;\n}").toRealPath();
+
+        Map<String, String> params = TestSources.params(src, out);
+        params.put("-i", "shop.Order");
+        params.put("-c", tmp.resolve("cache").toString());
+        JavaToTStransformer transformer = new JavaToTStransformer(params);
+        TestSources.translate(transformer, params);
+
+        try (SourceWatcher watcher = new SourceWatcher(transformer, params)) {
+            TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public double price;\n    public int quantity;\n}");
+            watcher.update(Collections.singleton(item));
+        }
+
+        assertEquals("\n\nexport interface Item {\n    price: number;\n    quantity: number;\n}", read(out.resolve("shop/item.ts")));
+    }
+
+    @Test
+    void lazilyLoadsTheFilesChangedTypesNowReference() throws IOException {
+        Path src = tmp.resolve("src");
+        Path out = tmp.resolve("out");
+        TestSources.write(src, "shop/Order.java", "package shop;\npublic class Order {\n    public Item item;\n}");
+        Path item = TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public double price;\n}").toRealPath();
+        TestSources.write(src, "shop/Discount.java", "package shop;\npublic class Discount {\n    public int percent;\n}");
+
+        Map<String, String> params = TestSources.params(src, out);
+        params.put("-i", "shop.Order");
+        params.put("--lazy", null);
+        JavaToTStransformer transformer = new JavaToTStransformer(params);
+        TestSources.translate(transformer, params);
+        assertFalse(Files.exists(out.resolve("shop/discount.ts")));
+
+        try (SourceWatcher watcher = new SourceWatcher(transformer, params)) {
+            TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public double price;\n    public Discount discount;\n}");
+            watcher.update(Collections.singleton(item));
+        }
+
+        assertEquals("import { Discount } from '@shop/discount';\n\n" +
+                "export interface Item {\n    price: number;\n    discount: Discount;\n}", read(out.resolve("shop/item.ts")));
+        assertEquals("\n\nexport interface Discount {\n    percent: number;\n}", read(out.resolve("shop/discount.ts")));
+    }
+}
@@ -0,0 +1,46 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingTest {
+    @TempDir
+    Path tmp;
+
+    private Map<String, String> translate(Path src, String out, boolean stream) throws IOException {
+        Map<String, String> params = TestSources.params(src, tmp.resolve(out));
+        params.put("-i", "shop.Order");
+        if (stream) {
+            params.put("--stream", null);
+        }
+        JavaToTStransformer transformer = new JavaToTStransformer(params);
+        Map<String, String> res = TestSources.translate(transformer, params);
+        if (stream) {
+            assertEquals("", transformer.toString());
+        }
+        return res;
+    }
+
+    @Test
+    void streamingWritesTheSameFiles() throws IOException {
+        Path src = tmp.resolve("src");
+        TestSources.write(src, "shop/Order.java", "package shop;\nimport java.util.*;\npublic class Order extends shop.base.Entity {\n" +
+                "    public Map<String, Item.Note> notes;\n    public List<Item> items;\n    public Status status;\n}");
+        TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public Price price;\n" +
+                "    public static class Note {\n        public String text;\n        public Order order;\n    }\n}");
+        TestSources.write(src, "shop/Price.java", "package shop;\npublic class Price {\n    public double amount;\n}");
+        TestSources.write(src, "shop/Status.java", "package shop;\npublic enum Status {\n    NEW, DONE\n}");
+        TestSources.write(src, "shop/base/Entity.java", "package shop.base;\npublic class Entity {\n    public long id;\n}");
+
+        Map<String, String> streamed = translate(src, "streamed", true);
+        assertEquals(translate(src, "eager", false), streamed);
+        assertEquals(5, streamed.size());
+        // Note is reached first, through Order.notes, but types of a file are written in the same order in both modes
+        String item = streamed.get("shop/item.ts");
+        assertTrue(item.indexOf("interface Item ") < item.indexOf("interface Note "), item);
+    }
+}
@@ -0,0 +1,67 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Source trees written by the tests and their translation as the command line does it.
+ */
+final class TestSources {
+    private TestSources() {
+    }
+
+    /**
+     * Writes a file under root, creating its directories.
+     *
+     * @return the written file
+     */
+    static Path write(Path root, String file, String content) throws IOException {
+        Path path = root.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes());
+        return path;
+    }
+
+    /**
+     * @return parameters translating the sources under src into out, imports being relative to out
+     */
+    static Map<String, String> params(Path src, Path out) {
+        Map<String, String> params = new HashMap<>();
+        params.put("-p", src.toString());
+        params.put("-sr", src.toString() + "/");
+        params.put("-tr", out.toString());
+        params.put("-fr", out.toString());
+        return params;
+    }
+
+    /**
+     * @return files written for the parameters, see {@link #readFiles}
+     */
+    static Map<String, String> translate(Map<String, String> params) throws IOException {
+        return translate(new JavaToTStransformer(params), params);
+    }
+
+    static Map<String, String> translate(JavaToTStransformer transformer, Map<String, String> params) throws IOException {
+        transformer.buildLauncher();
+        JavaToTStransformer.run(transformer, params);
+        return readFiles(Paths.get(params.get("-tr")));
+    }
+
+    /**
+     * @return contents of the files under root by their path relative to it, with / as separator
+     */
+    static Map<String, String> readFiles(Path root) throws IOException {
+        Map<String, String> res = new TreeMap<>();
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path f : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                res.put(root.relativize(f).toString().replace('\\', '/'), new String(Files.readAllBytes(f)));
+            }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,72 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranslationModelTest {
+    @TempDir
+    Path tmp;
+
+    private TranslationModel build() throws IOException {
+        Path src = tmp.resolve("src");
+        TestSources.write(src, "shop/Order.java", "package shop;\nimport java.util.*;\npublic class Order {\n    public List<Item> items;\n" +
+                "    public Map<String, Price> prices;\n    public Status status;\n}");
+        TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public Price price;\n    public int quantity;\n}");
+        TestSources.write(src, "shop/Price.java", "package shop;\npublic class Price {\n    public double amount;\n}");
+        TestSources.write(src, "shop/Status.java", "package shop;\npublic enum Status {\n    NEW, DONE\n}");
+        Map<String, String> params = new HashMap<>();
+        params.put("-p", src.toString());
+        return TranslationModel.build(params);
+    }
+
+    private static String translate(TranslationModel model, String name) {
+        JavaToTStransformer translation = model.newTranslation();
+        translation.parseType(model.get(name));
+        return translation.toString();
+    }
+
+    @Test
+    void concurrentTranslationsAreIndependent() throws IOException, InterruptedException, ExecutionException {
+        TranslationModel model = build();
+        String order = translate(model, "shop.Order");
+        String item = translate(model, "shop.Item");
+        assertTrue(order.contains("export interface Price"));
+        assertEquals(3, item.split("export ").length);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                String name = i % 2 == 0 ? "shop.Order" : "shop.Item";
+                futures.add(executor.submit((Callable<String>) () -> translate(model, name)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(i % 2 == 0 ? order : item, futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void modelCanNotBeChanged() throws IOException {
+        TranslationModel model = build();
+        JavaToTStransformer translation = model.newTranslation();
+        assertThrows(IllegalStateException.class, () -> translation.getDeclarations().remove("shop.Order"));
+        assertThrows(UnsupportedOperationException.class, () -> model.getDeclarations().clear());
+        assertEquals(1, model.find("Ord").size());
+    }
+}
@@ -0,0 +1,113 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import spoon.Launcher;
+import spoon.reflect.declaration.CtType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranslationServerTest {
+    @TempDir
+    Path tmp;
+
+    private TranslationServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        Launcher launcher = new Launcher();
+        launcher.addInputResource(new spoon.support.compiler.VirtualFile(
+                "package shop;\nclass Order {\n    public Item item;\n    public String id;\n}\n" +
+                        "class Item {\n    public int quantity;\n}\nclass OrderLine {\n    public Item item;\n}"));
+        start(launcher, new HashMap<>());
+    }
+
+    private void start(Launcher launcher, Map<String, String> params) throws IOException {
+        JavaToTStransformer model = new JavaToTStransformer(true);
+        launcher.getEnvironment().setNoClasspath(true);
+        launcher.buildModel();
+        for (CtType<?> type : launcher.getModel().getAllTypes()) {
+            model.parseType(type);
+        }
+        params.put("-serve", "0");
+        server = new TranslationServer(params, model.getDeclarations());
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop();
+    }
+
+    private String get(String query, int expectedStatus) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + "/translate?" + query).openConnection();
+        assertEquals(expectedStatus, connection.getResponseCode());
+        try (InputStream in = expectedStatus < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toString("UTF-8");
+        }
+    }
+
+    @Test
+    void concurrentRequestsAreIsolated() throws Exception {
+        String item = "export interface Item {\n    quantity: number;\n}";
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        List<Future<String>> items = new ArrayList<>();
+        List<Future<String>> orders = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            items.add(clients.submit(() -> get("i=shop.Item", 200)));
+            orders.add(clients.submit(() -> get("i=shop.Order", 200)));
+        }
+        for (Future<String> result : items) {
+            assertEquals(item, result.get());
+        }
+        for (Future<String> result : orders) {
+            assertEquals(2, result.get().split("export interface").length - 1);
+        }
+        clients.shutdown();
+    }
+
+    @Test
+    void ambiguousAndMissingClasses() throws IOException {
+        assertTrue(get("i=Line", 200).contains("export interface OrderLine {"));
+        assertEquals("Several classes match Ord:\nshop.Order\nshop.OrderLine", get("i=Ord", 409));
+        assertEquals("Nothing found for: Missing", get("i=Missing", 404));
+        get("", 400);
+    }
+
+    @Test
+    void failedWritesAreReported() throws IOException {
+        server.stop();
+        Path src = tmp.resolve("src");
+        TestSources.write(src, "shop/Item.java", "package shop;\npublic class Item {\n    public int quantity;\n}");
+        Path target = Files.createFile(tmp.resolve("target"));
+        Launcher launcher = new Launcher();
+        launcher.addInputResource(src.toString());
+        Map<String, String> params = new HashMap<>();
+        params.put("-sr", src + "/");
+        params.put("-tr", target.toString());
+        start(launcher, params);
+        assertTrue(get("i=shop.Item", 200).contains("export interface Item {"));
+        assertTrue(get("i=shop.Item&write=true", 500).contains(target.toString()));
+    }
+}
@@ -0,0 +1,112 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TypeMapperTest {
+    @TempDir
+    Path tmp;
+
+    private static TypeDeclaration.TypeRef ref(String qualifiedName, TypeDeclaration.TypeRef... typeArguments) {
+        String simpleName = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+        return TypeDeclaration.TypeRef.of(qualifiedName, simpleName, null, Arrays.asList(typeArguments), false);
+    }
+
+    private static TypeDeclaration.TypeRef array(TypeDeclaration.TypeRef componentType) {
+        return TypeDeclaration.TypeRef.of(componentType.qualifiedName + "[]", componentType.simpleName + "[]", componentType, null, false);
+    }
+
+    private static TypeDeclaration type(String qualifiedName, List<String> imports) {
+        String simpleName = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+        return new TypeDeclaration(TypeDeclaration.Kind.CLASS, qualifiedName, simpleName, DeclarationExtractor.getPackageName(qualifiedName), null, imports);
+    }
+
+    @Test
+    void mapsCollectionsAndBuiltInTypes() {
+        TypeMapper mapper = new TypeMapper(new DeclarationTable());
+        TypeDeclaration.TypeRef string = ref("java.lang.String");
+        TypeDeclaration.TypeRef line = ref("shop.Line");
+        assertEquals("string", mapper.getType(string));
+        assertEquals("Line[]", mapper.getType(ref("java.util.List", line)));
+        assertEquals("Set<number>", mapper.getType(ref("java.util.Set", ref("java.lang.Long"))));
+        assertEquals("Map<string, Line[][]>", mapper.getType(ref("java.util.Map", string, ref("java.util.Collection", array(line)))));
+        assertSame(mapper.getType(ref("java.util.List", line)), mapper.getType(ref("java.util.List", line)));
+    }
+
+    @Test
+    void configuredMappingsOverrideBuiltInOnes() throws IOException {
+        Path config = tmp.resolve("types.properties");
+        Files.write(config, Arrays.asList("# dates are sent as ISO strings", "java.time.Instant = string", "java.lang.Character=number"));
+        Map<String, String> mappings = TypeMapper.readMappings(config);
+        TypeMapper mapper = new TypeMapper(new DeclarationTable(), mappings);
+        assertEquals("string[]", mapper.getType(ref("java.util.List", ref("java.time.Instant"))));
+        assertEquals("number", mapper.getType(ref("java.lang.Character")));
+        assertEquals("Instant", new TypeMapper(new DeclarationTable()).getType(ref("java.time.Instant")));
+    }
+
+    @Test
+    void actualTypesFollowChangesOfTheTable() {
+        DeclarationTable declarations = new DeclarationTable();
+        TypeDeclaration order = type("shop.Order", Collections.singletonList("billing.Invoice"));
+        TypeDeclaration line = type("shop.Line", Collections.emptyList());
+        declarations.add(order);
+        declarations.add(line);
+        TypeMapper mapper = new TypeMapper(declarations);
+
+        // Invoice is only known by the name Spoon guessed for it until its declaration is added
+        TypeDeclaration.TypeRef field = ref("java.util.Map", ref("shop.Line"), ref("Invoice"));
+        assertEquals(Collections.singleton(line), mapper.getActualTypes(order, field));
+        assertSame(mapper.getActualTypes(order, field), mapper.getActualTypes(order, field));
+
+        TypeDeclaration invoice = type("billing.Invoice", Collections.emptyList());
+        declarations.add(invoice);
+        assertEquals(Arrays.asList(line, invoice), Arrays.asList(mapper.getActualTypes(order, field).toArray()));
+
+        declarations.remove("shop.Line");
+        assertEquals(Collections.singleton(invoice), mapper.getActualTypes(order, field));
+        assertTrue(mapper.getActualTypes(order, ref("java.lang.String")).isEmpty());
+    }
+
+    // interned references left once the ones no longer used are collected
+    private static int collectInterned(int atMost) throws InterruptedException {
+        int res = TypeDeclaration.TypeRef.internedCount();
+        for (int i = 0; i < 50 && res > atMost; i++) {
+            System.gc();
+            Thread.sleep(10);
+            int collected = TypeDeclaration.TypeRef.internedCount();
+            if (collected == res && atMost < 0) {
+                break;
+            }
+            res = collected;
+        }
+        return res;
+    }
+
+    @Test
+    void referencesNoLongerUsedAreCollected() throws InterruptedException {
+        DeclarationTable declarations = new DeclarationTable();
+        TypeMapper mapper = new TypeMapper(declarations);
+        TypeDeclaration.TypeRef kept = ref("shop.Kept");
+        // references of the previous tests
+        int before = collectInterned(-1);
+        for (int i = 0; i < 10000; i++) {
+            mapper.getType(ref("java.util.List", ref("shop.Gone" + i)));
+        }
+        assertTrue(TypeDeclaration.TypeRef.internedCount() >= before + 20000);
+
+        // a change of the table, e.g. in --watch mode, releases the references mapped before
+        declarations.add(type("shop.Kept", Collections.emptyList()));
+        assertEquals("Kept", mapper.getType(kept));
+        assertTrue(collectInterned(before + 100) <= before + 100);
+        assertSame(kept, ref("shop.Kept"));
+    }
+}
@@ -0,0 +1,13 @@
+import { Customer } from '@crm/people/customer';
+
+export interface Order {
+    customer: Customer;
+    lines: Line[];
+    previous: Order;
+}
+
+
+export interface Line {
+    order: Order;
+    quantity: number;
+}
\ No newline at end of file
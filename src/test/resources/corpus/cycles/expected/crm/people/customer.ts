@@ -0,0 +1,8 @@
+import { Node } from '@crm/people/node';
+import { Order } from '@crm/orders/order';
+
+export interface Customer {
+    orders: Order[];
+    referrals: Map<string, Customer>;
+    network: Node;
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+import { Customer } from '@crm/people/customer';
+
+export interface Node {
+    parent: Node;
+    children: Node[];
+    owner: Customer;
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package crm.orders;
+
+import crm.people.Customer;
+import java.util.List;
+
+public class Order {
+    public Customer customer;
+    public List<Line> lines;
+    public Order previous;
+
+    public static class Line {
+        public Order order;
+        public int quantity;
+    }
+}
@@ -0,0 +1,11 @@
+package crm.people;
+
+import crm.orders.Order;
+import java.util.List;
+import java.util.Map;
+
+public class Customer {
+    public List<Order> orders;
+    public Map<String, Customer> referrals;
+    public Node network;
+}
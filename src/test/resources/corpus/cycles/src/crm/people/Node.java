@@ -0,0 +1,9 @@
+package crm.people;
+
+import java.util.List;
+
+public class Node {
+    public Node parent;
+    public List<Node> children;
+    public Customer owner;
+}
@@ -0,0 +1,7 @@
+
+
+export enum Currency { 
+    EURO = "EUR",
+    US_DOLLAR = "USD",
+    POUND = "GBP"
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+
+
+export enum Grade { 
+    GOOD = 'A',
+    FAIR = 'C'
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+import { Currency } from '@billing/currency';
+import { Grade } from '@billing/grade';
+import { Kind } from '@billing/kind';
+import { Priority } from '@billing/priority';
+import { Status } from '@billing/status';
+
+export interface Invoice {
+    status: Status;
+    currency: Currency;
+    priorities: Priority[];
+    grade: Grade;
+    kind: Kind;
+}
\ No newline at end of file
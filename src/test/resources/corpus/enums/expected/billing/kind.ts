@@ -0,0 +1,6 @@
+
+
+export enum Kind { 
+    STANDARD = 'STANDARD',
+    CREDIT_NOTE = 'CREDIT_NOTE'
+}
\ No newline at end of file
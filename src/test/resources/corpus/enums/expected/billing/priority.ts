@@ -0,0 +1,7 @@
+
+
+export enum Priority { 
+    LOW = 1,
+    NORMAL = 5,
+    HIGH = 10
+}
\ No newline at end of file
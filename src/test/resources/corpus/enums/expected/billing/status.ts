@@ -0,0 +1,8 @@
+
+
+export enum Status { 
+    DRAFT = 'DRAFT',
+    SENT = 'SENT',
+    PAID = 'PAID',
+    CANCELLED = 'CANCELLED'
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package billing;
+
+public enum Currency {
+    EURO("EUR"),
+    US_DOLLAR("USD"),
+    POUND("GBP");
+
+    private final String code;
+
+    Currency(String code) {
+        this.code = code;
+    }
+}
@@ -0,0 +1,12 @@
+package billing;
+
+public enum Grade {
+    GOOD('A'),
+    FAIR('C');
+
+    private final char letter;
+
+    Grade(char letter) {
+        this.letter = letter;
+    }
+}
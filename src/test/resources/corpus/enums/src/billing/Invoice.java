@@ -0,0 +1,11 @@
+package billing;
+
+import java.util.List;
+
+public class Invoice {
+    public Status status;
+    public Currency currency;
+    public List<Priority> priorities;
+    public Grade grade;
+    public Kind kind;
+}
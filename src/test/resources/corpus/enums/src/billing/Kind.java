@@ -0,0 +1,18 @@
+package billing;
+
+public enum Kind {
+    STANDARD {
+        @Override
+        public boolean isCredit() {
+            return false;
+        }
+    },
+    CREDIT_NOTE {
+        @Override
+        public boolean isCredit() {
+            return true;
+        }
+    };
+
+    public abstract boolean isCredit();
+}
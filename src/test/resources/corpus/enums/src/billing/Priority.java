@@ -0,0 +1,13 @@
+package billing;
+
+public enum Priority {
+    LOW(1),
+    NORMAL(5),
+    HIGH(10);
+
+    private final int level;
+
+    Priority(int level) {
+        this.level = level;
+    }
+}
@@ -0,0 +1,5 @@
+package billing;
+
+public enum Status {
+    DRAFT, SENT, PAID, CANCELLED
+}
@@ -0,0 +1,15 @@
+import { Box } from '@store/util/box';
+import { Price } from '@store/price';
+import { Product } from '@store/product';
+import { Tag } from '@store/tag';
+
+export interface Catalog {
+    productsByCategory: Map<string, Set<Product>[]>;
+    priceHistory: Map<number, Price[]>[];
+    tags: Tag[];
+    tagGroups: Set<Tag[]>;
+    pages: string[][];
+    featured: Box;
+    nested: Map<Tag, Map<string, Box>>;
+    matrix: number[][];
+}
\ No newline at end of file
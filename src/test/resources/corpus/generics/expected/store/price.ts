@@ -0,0 +1,7 @@
+
+
+export interface Price {
+    amount: number;
+    currency: string;
+    discount: number;
+}
\ No newline at end of file
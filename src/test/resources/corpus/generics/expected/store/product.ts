@@ -0,0 +1,8 @@
+import { Price } from '@store/price';
+
+export interface Product {
+    sku: string;
+    prices: Price[];
+    grade: string;
+    thumbnail: number[];
+}
\ No newline at end of file
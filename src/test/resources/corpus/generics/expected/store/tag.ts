@@ -0,0 +1,5 @@
+
+
+export interface Tag {
+    label: string;
+}
\ No newline at end of file
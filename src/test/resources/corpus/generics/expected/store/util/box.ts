@@ -0,0 +1,7 @@
+
+
+export interface Box {
+    value: T;
+    history: T[];
+    updatedAt: number;
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package store;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import store.util.Box;
+
+public class Catalog {
+    public Map<String, List<Set<Product>>> productsByCategory;
+    public List<Map<Long, Price[]>> priceHistory;
+    public Collection<Tag> tags;
+    public Set<List<Tag>> tagGroups;
+    public List<String>[] pages;
+    public Box<Product> featured;
+    public Map<Tag, Map<String, Box<Price>>> nested;
+    public int[][] matrix;
+}
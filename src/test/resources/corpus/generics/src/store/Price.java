@@ -0,0 +1,7 @@
+package store;
+
+public class Price {
+    public double amount;
+    public String currency;
+    public Float discount;
+}
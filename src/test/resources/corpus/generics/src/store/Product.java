@@ -0,0 +1,10 @@
+package store;
+
+import java.util.List;
+
+public class Product {
+    public String sku;
+    public List<Price> prices;
+    public Character grade;
+    public byte[] thumbnail;
+}
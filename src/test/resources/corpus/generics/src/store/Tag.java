@@ -0,0 +1,5 @@
+package store;
+
+public class Tag {
+    public String label;
+}
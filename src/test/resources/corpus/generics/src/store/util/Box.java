@@ -0,0 +1,9 @@
+package store.util;
+
+import java.util.List;
+
+public class Box<T> {
+    public T value;
+    public List<T> history;
+    public Long updatedAt;
+}
@@ -0,0 +1,6 @@
+
+
+export interface Entity {
+    id: number;
+    createdBy: string;
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+import { Versioned } from '@model/base/versioned';
+
+export interface Named extends Versioned {
+    name: string;
+    description: string;
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+import { Entity } from '@model/base/entity';
+
+export interface Versioned extends Entity {
+    version: number;
+    internalNote: string;
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+import { Entity } from '@model/base/entity';
+
+export interface Author extends Entity {
+    email: string;
+    active: boolean;
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+import { Author } from '@model/docs/author';
+import { Named } from '@model/base/named';
+import { Section } from '@model/docs/section';
+
+export interface Document extends Named {
+    sections: Section[];
+    author: Author;
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+import { Author } from '@model/docs/author';
+import { Document } from '@model/docs/document';
+
+export interface Report extends Document {
+    score: number;
+    reviewers: Page;
+}
+
+
+export interface Page {
+    offset: number;
+    total: number;
+    items: T[];
+}
\ No newline at end of file
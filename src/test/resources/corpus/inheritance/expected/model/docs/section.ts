@@ -0,0 +1,6 @@
+import { Named } from '@model/base/named';
+
+export interface Section extends Named {
+    position: number;
+    subsections: Section[];
+}
\ No newline at end of file
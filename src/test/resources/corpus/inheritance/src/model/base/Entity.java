@@ -0,0 +1,6 @@
+package model.base;
+
+public abstract class Entity {
+    public long id;
+    public String createdBy;
+}
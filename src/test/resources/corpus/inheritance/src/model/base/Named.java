@@ -0,0 +1,6 @@
+package model.base;
+
+public abstract class Named extends Versioned {
+    public String name;
+    public String description;
+}
@@ -0,0 +1,6 @@
+package model.base;
+
+public abstract class Versioned extends Entity {
+    public int version;
+    protected String internalNote;
+}
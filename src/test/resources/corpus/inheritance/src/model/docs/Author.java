@@ -0,0 +1,8 @@
+package model.docs;
+
+import model.base.Entity;
+
+public class Author extends Entity {
+    public String email;
+    public Boolean active;
+}
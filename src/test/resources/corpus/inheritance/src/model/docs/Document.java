@@ -0,0 +1,10 @@
+package model.docs;
+
+import java.util.List;
+import model.base.Named;
+
+public class Document extends Named {
+    public List<Section> sections;
+    public Author author;
+    private transient Object cache;
+}
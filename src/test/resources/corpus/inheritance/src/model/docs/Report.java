@@ -0,0 +1,12 @@
+package model.docs;
+
+public class Report extends Document {
+    public double score;
+    public Page<Author> reviewers;
+
+    public static class Page<T> {
+        public int offset;
+        public int total;
+        public T[] items;
+    }
+}
@@ -0,0 +1,8 @@
+package model.docs;
+
+import model.base.Named;
+
+public class Section extends Named {
+    public int position;
+    public Section[] subsections;
+}